@@ -0,0 +1,111 @@
+/*
+ * The Arithmetic class which does the math for the arithmetic operators.
+ * When both sides are whole numbers the answer is worked out on longs, so
+ * counters and byte totals past 2^53 stay exact, and it only falls back to
+ * doubles when the answer is not a whole number or would overflow a long.
+ * Small whole answers come from InterpreterDataType's shared values so
+ * counting does not allocate.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class Arithmetic {
+
+    private Arithmetic() {
+    }
+
+    static InterpreterDataType Add(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger()) {
+            long a = left.getInteger();
+            long b = right.getInteger();
+            long sum = a + b;
+            if (((a ^ sum) & (b ^ sum)) >= 0) { return InterpreterDataType.Of(sum); } // the sign only flips on overflow
+        }
+        return new InterpreterDataType(left.getNum() + right.getNum());
+    }
+
+    static InterpreterDataType Subtract(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger()) {
+            long a = left.getInteger();
+            long b = right.getInteger();
+            long difference = a - b;
+            if (((a ^ b) & (a ^ difference)) >= 0) { return InterpreterDataType.Of(difference); }
+        }
+        return new InterpreterDataType(left.getNum() - right.getNum());
+    }
+
+    static InterpreterDataType Multiply(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger()) {
+            long a = left.getInteger();
+            long b = right.getInteger();
+            long high = Math.multiplyHigh(a, b);
+            long product = a * b;
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) { return InterpreterDataType.Of(product); }
+        }
+        return new InterpreterDataType(left.getNum() * right.getNum());
+    }
+
+    static InterpreterDataType Divide(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger()) {
+            long a = left.getInteger();
+            long b = right.getInteger();
+            if (b != 0 && a % b == 0 && !(a == Long.MIN_VALUE && b == -1)) { return InterpreterDataType.Of(a / b); }
+        }
+        return new InterpreterDataType(left.getNum() / right.getNum());
+    }
+
+    static InterpreterDataType Modulo(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger() && right.getInteger() != 0) {
+            return InterpreterDataType.Of(left.getInteger() % right.getInteger());
+        }
+        return new InterpreterDataType(left.getNum() % right.getNum());
+    }
+
+    static InterpreterDataType Power(InterpreterDataType left, InterpreterDataType right) {
+        if (left.IsInteger() && right.IsInteger() && right.getInteger() >= 0) { // squares and multiplies so whole powers stay exact
+            long base = left.getInteger();
+            long exponent = right.getInteger();
+            long result = 1;
+            boolean overflow = false;
+            while (exponent > 0 && !overflow) {
+                if ((exponent & 1) == 1) {
+                    long high = Math.multiplyHigh(result, base);
+                    long product = result * base;
+                    overflow = !((high == 0 && product >= 0) || (high == -1 && product < 0));
+                    result = product;
+                }
+                exponent >>= 1;
+                if (exponent > 0 && !overflow) {
+                    long high = Math.multiplyHigh(base, base);
+                    long square = base * base;
+                    overflow = !((high == 0 && square >= 0) || (high == -1 && square < 0));
+                    base = square;
+                }
+            }
+            if (!overflow) { return InterpreterDataType.Of(result); }
+        }
+        return new InterpreterDataType(Math.pow(left.getNum(), right.getNum()));
+    }
+
+    static InterpreterDataType Negate(InterpreterDataType value) {
+        if (value.IsInteger() && value.getInteger() != Long.MIN_VALUE) {
+            return InterpreterDataType.Of(-value.getInteger());
+        }
+        return new InterpreterDataType(-value.getNum());
+    }
+
+    // returns the value as a number, which is what unary plus does
+    static InterpreterDataType ToNumber(InterpreterDataType value) {
+        if (value.IsInteger()) { return InterpreterDataType.Of(value.getInteger()); }
+        return new InterpreterDataType(value.getNum());
+    }
+
+    // adds a small whole number, which is what ++ and -- do
+    static InterpreterDataType Increment(InterpreterDataType value, long delta) {
+        if (value.IsInteger()) {
+            long a = value.getInteger();
+            long sum = a + delta;
+            if (((a ^ sum) & (delta ^ sum)) >= 0) { return InterpreterDataType.Of(sum); }
+        }
+        return new InterpreterDataType(value.getNum() + delta);
+    }
+}
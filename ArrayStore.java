@@ -0,0 +1,38 @@
+/*
+ * The ArrayStore interface which is implemented by every way the
+ * elements of an InterpreterArrayDataType that are not kept in its
+ * dense part can be stored.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public interface ArrayStore {
+
+    /*
+     * This method is used to return the element stored
+     * under the key, or null if there is none.
+     *
+     * @return InterpreterDataType
+     */
+    InterpreterDataType Get(String key);
+
+    void Put(String key, InterpreterDataType value);
+
+    void Remove(String key);
+
+    int Size();
+
+    /*
+     * This method is used to return the keys of the store,
+     * which can be changed while they are looped over.
+     *
+     * @return Iterable<String>
+     */
+    Iterable<String> Keys();
+
+    /*
+     * This method is used to let go of anything the store holds outside
+     * of the heap once its array is cleared, which most stores do not need.
+     */
+    default void Close() {
+    }
+}
@@ -0,0 +1,37 @@
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * The BufferedRecordReader class which implements a RecordReader.
+ * Records are pulled one at a time through a RecordScanner so the
+ * whole file never has to be held in memory.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class BufferedRecordReader implements RecordReader {
+    private RecordScanner scanner;
+
+    public BufferedRecordReader(Path filePath) throws IOException {
+        this.scanner = new RecordScanner(new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8));
+    }
+
+    public String ReadRecord() throws IOException {
+        return scanner.ReadRecord();
+    }
+
+    public void SetRecordSeparator(String rs) {
+        scanner.Compile(rs);
+    }
+
+    public void close() throws IOException {
+        scanner.Close();
+    }
+
+    @Override
+    public String toString() {
+        return "BufferedRecordReader";
+    }
+}
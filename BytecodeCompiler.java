@@ -0,0 +1,582 @@
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.tools.FileObject;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/*
+ * The BytecodeCompiler class which turns the rules of a program into a class
+ * of its own that the JVM loads and the JIT compiles like any other code, so
+ * the rules run as plain Java methods instead of a tree of closures:
+ *   - every rule and every user defined function becomes a method, and its
+ *     statements become Java if, while, do and for statements
+ *   - globals with a slot and the parameters of functions are read and written
+ *     straight from the slot array and the frame
+ *   - a call to a user defined function is a method of its own that fills the
+ *     frame and runs the function's method, without going through closures
+ *   - conditions are worked out as Java booleans instead of TRUE and FALSE values
+ *   - builtins, user defined functions, constants and regular expressions are
+ *     found once and kept in final fields, so the calls to them are direct
+ * The Java source for the class is written from the syntax tree, compiled in
+ * memory with the system Java compiler and defined as a hidden class next to
+ * the Interpreter. Values are not typed: numbers stay InterpreterDataTypes going
+ * through Arithmetic, so whole numbers are exact past 2^53 like they are
+ * everywhere else, and the class saves the dispatch of the closures but not
+ * the boxing of numbers.
+ *
+ * Anything that is not written as Java (the special variables, nodes that are
+ * missing a part) is compiled into a closure by the ClosureCompiler or handed to
+ * the Interpreter, and the class calls that. When there is no Java compiler (a
+ * JRE) or the class does not compile, Compile says why and returns null and the
+ * rules are run as closures instead.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class BytecodeCompiler {
+    private static final String CLASS_NAME = "CompiledProgram";
+    private static final int CACHED_CLASSES = 8;
+    // parallel workers run the same source, so it is only compiled once, and only the classes used last are kept
+    private static final Map<String, Constructor<?>> constructors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Constructor<?>> eldest) {
+            return size() > CACHED_CLASSES;
+        }
+    };
+
+    private final Interpreter interpreter;
+    private final ClosureCompiler closureCompiler;
+    private final List<String> fieldTypes = new ArrayList<>();
+    private final List<Object> fieldValues = new ArrayList<>();
+    private final StringBuilder source = new StringBuilder();
+    private final StringBuilder callSites = new StringBuilder();   // a method for each call of a user defined function
+    private final List<UserFunction> functions = new ArrayList<>();
+    private int keyCount = 0;       // the loop variables of for (k in arr) get their own names
+    private int callCount = 0;      // and so do the call site methods
+    private int loopDepth = 0;
+    private String statementLabel;  // the label of the top level statement being written, a break outside a loop ends it
+    private boolean inFunction = false; // true while the body of a user defined function is written, where a return ends the method
+
+    private BytecodeCompiler(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.closureCompiler = new ClosureCompiler(interpreter);
+        functions.addAll(interpreter.userFunctions.values());
+        functions.sort(Comparator.comparing(function -> function.definition.getFunctionName()));   // the same program always gives the same source
+    }
+
+    /*
+     * This method is used to compile a list of rule blocks, and the user
+     * defined functions of the interpreter, into a class and return its
+     * rules. The functions are given their compiled bodies. It returns null,
+     * after saying why, if the class could not be made.
+     *
+     * @return CompiledStatement[]
+     */
+    static CompiledStatement[] Compile(Interpreter interpreter, List<BlockNode> blocks) {
+        try {
+            BytecodeCompiler compiler = new BytecodeCompiler(interpreter);
+            String javaSource = compiler.WriteClass(blocks);
+            Constructor<?> constructor;
+            synchronized (constructors) {
+                constructor = constructors.get(javaSource);
+                if (constructor == null) {
+                    byte[] bytes = CompileSource(javaSource);
+                    MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClass(bytes, true);
+                    constructor = hidden.lookupClass().getDeclaredConstructor(Interpreter.class, Object[].class, int.class);
+                    constructors.put(javaSource, constructor);
+                }
+            }
+            Object[] fields = compiler.fieldValues.toArray();
+            CompiledStatement[] rules = new CompiledStatement[blocks.size()];
+            for (int i = 0; i < rules.length; i++) {
+                rules[i] = (CompiledStatement) constructor.newInstance(interpreter, fields, i);
+            }
+            for (int i = 0; i < compiler.functions.size(); i++) {   // the functions come after the rules
+                compiler.functions.get(i).body = (CompiledStatement) constructor.newInstance(interpreter, fields, rules.length + i);
+            }
+            return rules;
+        } catch (Exception e) {     // the closures run the rules just as well, only slower
+            System.err.println("-jit is running the rules as closures: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // compiles the source in memory and returns the bytes of the class, it throws with the first error when it does not compile
+    private static byte[] CompileSource(String javaSource) throws Exception {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) { throw new Exception("There is no Java compiler: BytecodeCompiler<CompileSource>"); }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + CLASS_NAME + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return javaSource;
+            }
+        };
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(javac.getStandardFileManager(null, null, null)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + className + ".class"), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return bytes;
+                    }
+                };
+            }
+        };
+        List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-nowarn", "-g:none");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean compiled = javac.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call();
+        if (!compiled) {
+            String error = diagnostics.getDiagnostics().stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .map(diagnostic -> diagnostic.getMessage(null)).findFirst().orElse("unknown error");
+            throw new Exception("The generated class does not compile (" + error + "): BytecodeCompiler<CompileSource>");
+        }
+        return bytes.toByteArray();
+    }
+
+    /*
+     * This method is used to write the whole class, the fields it needs are
+     * collected while its rules are written. An instance of the class runs one
+     * rule, picked by the number it is made with. The class does not hand out
+     * method references to its rules, since a hidden class can not be named in
+     * the types of the lambdas that would make.
+     *
+     * @return String
+     */
+    private String WriteClass(List<BlockNode> blocks) throws Exception {
+        StringBuilder rules = new StringBuilder();
+        for (int i = 0; i < blocks.size(); i++) {
+            source.setLength(0);
+            WriteRule(blocks.get(i));
+            rules.append("    ReturnType Rule").append(i).append("(InterpreterDataType[] locals) throws Exception {\n")
+                    .append(source).append("        return ReturnType.NORMAL;\n    }\n\n");
+        }
+        inFunction = true;
+        for (int i = 0; i < functions.size(); i++) {
+            source.setLength(0);
+            WriteFunction(functions.get(i).definition);
+            rules.append("    ReturnType Function").append(i).append("(InterpreterDataType[] locals) throws Exception {\n")
+                    .append(source).append("        return ReturnType.NORMAL;\n    }\n\n");
+        }
+        inFunction = false;
+        StringBuilder javaSource = new StringBuilder();
+        javaSource.append("import java.util.HashMap;\n\n");
+        javaSource.append("final class ").append(CLASS_NAME).append(" implements CompiledStatement {\n");
+        javaSource.append("    static final String[] KEYS = {\"0\", \"1\", \"2\", \"3\", \"4\", \"5\", \"6\", \"7\"};\n");
+        javaSource.append("    final Interpreter interpreter;\n");
+        javaSource.append("    final InterpreterDataType[] g;\n");
+        javaSource.append("    final int rule;\n");
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            javaSource.append("    final ").append(fieldTypes.get(i)).append(" k").append(i).append(";\n");
+        }
+        javaSource.append("\n    ").append(CLASS_NAME).append("(Interpreter interpreter, Object[] k, int rule) {\n");
+        javaSource.append("        this.interpreter = interpreter;\n");
+        javaSource.append("        this.rule = rule;\n");
+        javaSource.append("        this.g = interpreter.globalSlots;\n");
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            javaSource.append("        this.k").append(i).append(" = (").append(fieldTypes.get(i)).append(") k[").append(i).append("];\n");
+        }
+        javaSource.append("    }\n\n");
+        javaSource.append("    public ReturnType Execute(InterpreterDataType[] locals) throws Exception {\n        switch (rule) {\n");
+        for (int i = 0; i < blocks.size(); i++) {
+            javaSource.append("            case ").append(i).append(": return Rule").append(i).append("(locals);\n");
+        }
+        for (int i = 0; i < functions.size(); i++) {
+            javaSource.append("            case ").append(blocks.size() + i).append(": return Function").append(i).append("(locals);\n");
+        }
+        javaSource.append("            default: return ReturnType.NORMAL;\n        }\n    }\n\n");
+        javaSource.append(rules);
+        javaSource.append(callSites);
+        javaSource.append(HELPERS);
+        javaSource.append("}\n");
+        return javaSource.toString();
+    }
+
+    // the methods the generated code calls for what does not fit in an expression
+    private static final String HELPERS = """
+                static InterpreterDataType Read(InterpreterDataType value) {
+                    return value == null ? InterpreterDataType.EMPTY : value;
+                }
+
+                static void Statement(InterpreterDataType value) {}
+
+                static InterpreterDataType PostIncrement(InterpreterDataType[] slots, int slot, long delta) {
+                    InterpreterDataType old = Arithmetic.ToNumber(Read(slots[slot]));
+                    slots[slot] = Arithmetic.Increment(old, delta);
+                    return old;
+                }
+
+                static InterpreterDataType Put(InterpreterDataType value, InterpreterArrayDataType array, InterpreterDataType index) {
+                    array.Put(index, value);
+                    return value;
+                }
+
+                InterpreterDataType Assign(InterpreterDataType value, VariableReferenceNode vNode, InterpreterDataType[] locals) throws Exception {
+                    interpreter.AssignVariable(vNode, value, locals);
+                    return value;
+                }
+
+                InterpreterDataType SetField(InterpreterDataType value, InterpreterDataType index) throws Exception {
+                    interpreter.lineManager.SetField(interpreter.FieldIndex(index), value.getStr());
+                    return value;
+                }
+
+                InterpreterDataType GetField(InterpreterDataType index) throws Exception {
+                    return interpreter.lineManager.GetField(interpreter.FieldIndex(index));
+                }
+
+                static InterpreterDataType Call(BuiltInFunctionDefinitionNode builtIn, InterpreterDataType... parameters) {
+                    HashMap<String, InterpreterDataType> map = new HashMap<>();
+                    for (int j = 0; j < parameters.length; j++) {
+                        map.put(KEYS[j], parameters[j]);
+                    }
+                    return new InterpreterDataType(builtIn.Execute(map));
+                }
+
+                static InterpreterDataType CallVariadic(BuiltInFunctionDefinitionNode builtIn, InterpreterDataType[] parameters, InterpreterDataType redirect, InterpreterDataType target) {
+                    HashMap<String, InterpreterDataType> map = new HashMap<>();
+                    InterpreterArrayDataType iadt = new InterpreterArrayDataType();
+                    for (int j = 0; j < parameters.length; j++) {
+                        iadt.Put(j, parameters[j]);
+                    }
+                    map.put("0", iadt);
+                    if (redirect != null) {
+                        map.put("redirect", redirect);
+                        map.put("target", target);
+                    }
+                    return new InterpreterDataType(builtIn.Execute(map));
+                }
+            """;
+
+    // keeps a value in a final field of the class and returns the name of the field
+    private String Field(String type, Object value) {
+        fieldTypes.add(type);
+        fieldValues.add(value);
+        return "k" + (fieldValues.size() - 1);
+    }
+
+    // a rule is an if around its statements, each top level statement is labelled so a break or return outside a loop can end it
+    private void WriteRule(BlockNode blockNode) throws Exception {
+        boolean conditional = blockNode.getCondition() != null && blockNode.getCondition().isPresent();
+        if (conditional) { source.append("        if (").append(Condition(blockNode.getCondition().get())).append(") {\n"); }
+        int label = 0;
+        for (StatementNode statement : blockNode.getStatement()) {
+            statementLabel = "s" + label++;
+            source.append("        ").append(statementLabel).append(": {\n");
+            WriteStatement(statement);
+            source.append("        }\n");
+        }
+        if (conditional) { source.append("        }\n"); }
+    }
+
+    // the body of a user defined function is written like a rule without a condition, but a return ends the method
+    private void WriteFunction(FunctionDefinitionNode function) throws Exception {
+        int label = 0;
+        for (StatementNode statement : function.getStatementNodes()) {
+            statementLabel = "s" + label++;
+            source.append("        ").append(statementLabel).append(": {\n");
+            WriteStatement(statement);
+            source.append("        }\n");
+        }
+    }
+
+    private void WriteStatements(LinkedList<StatementNode> statements) throws Exception {
+        for (StatementNode statement : statements) {
+            WriteStatement(statement);
+        }
+    }
+
+    private void WriteStatement(StatementNode stmt) throws Exception {
+        if (stmt instanceof BreakNode) {
+            source.append(loopDepth > 0 ? "if (true) break;\n" : "if (true) break " + statementLabel + ";\n");     // if (true) keeps javac from calling what follows unreachable
+        } else if (stmt instanceof ContinueNode) {
+            source.append(loopDepth > 0 ? "if (true) continue;\n" : "if (true) break " + statementLabel + ";\n");
+        } else if (stmt instanceof ReturnNode returnNode && inFunction) {     // the value is handed back through the Interpreter
+            source.append("interpreter.returnValue = ").append(returnNode.getStatement() == null ? "InterpreterDataType.EMPTY" : Value(returnNode.getStatement())).append(";\n");
+            source.append("if (true) return ReturnType.RETURN;\n");
+        } else if (stmt instanceof ReturnNode returnNode) {     // a return in a rule ends the top level statement it is in
+            if (returnNode.getStatement() != null) { source.append(Value(returnNode.getStatement())).append(".getStr();\n"); }
+            source.append("if (true) break ").append(statementLabel).append(";\n");
+        } else if (stmt instanceof IfNode ifNode) {
+            for (IfNode curr = ifNode; curr != null; curr = (IfNode) curr.getNext()) {
+                if (curr != ifNode) { source.append(" else "); }
+                if (curr.getCondition() != null) { source.append("if (").append(Condition(curr.getCondition())).append(") "); }
+                source.append("{\n");
+                WriteStatements(curr.getBlockNode().getStatement());
+                source.append("}");
+                if (curr.getCondition() == null) { break; }
+            }
+            source.append("\n");
+        } else if (stmt instanceof WhileNode whileNode) {
+            source.append("while (").append(Condition(whileNode.getCondition())).append(") {\n");
+            WriteLoopBody(whileNode.getBlockNode());
+            source.append("}\n");
+        } else if (stmt instanceof DoWhileNode doWhileNode) {
+            source.append("do {\n");
+            WriteLoopBody(doWhileNode.getBlockNode());
+            source.append("} while (").append(Condition(doWhileNode.getCondition())).append(");\n");
+        } else if (stmt instanceof ForNode forNode) {
+            if (forNode.getCondition1() != null) { source.append("Statement(").append(Value(forNode.getCondition1())).append(");\n"); }
+            source.append("for (; ");
+            source.append(forNode.condition2 == null ? "Interpreter.IsTrue(InterpreterDataType.TRUE)" : Condition(forNode.condition2));   // for (;;) loops until a break
+            source.append("; ");
+            if (forNode.getCondition3() != null) { source.append("Statement(").append(Value(forNode.getCondition3())).append(")"); }
+            source.append(") {\n");
+            WriteLoopBody(forNode.getBlockNode());
+            source.append("}\n");
+        } else if (stmt instanceof ForEachNode forEachNode) {
+            WriteForEach(forEachNode);
+        } else if (stmt instanceof DeleteNode) {
+            source.append(Field("CompiledStatement", closureCompiler.CompileStatement(stmt))).append(".Execute(locals);\n");
+        } else if (stmt instanceof FunctionCallNode fNode && fNode.functionName.getTokenType() == Token.TokenType.NEXT) {  // next and exit end the whole rule
+            source.append("if (true) return ReturnType.NEXT;\n");
+        } else if (stmt instanceof FunctionCallNode fNode && fNode.functionName.getTokenType() == Token.TokenType.EXIT) {
+            if (!fNode.parameters.isEmpty()) { source.append("interpreter.exitStatus = (int) ").append(Value(fNode.parameters.get(0))).append(".getNum();\n"); }
+            source.append("if (true) return ReturnType.EXIT;\n");
+        } else {
+            source.append("Statement(").append(Value(stmt)).append(");\n");
+        }
+    }
+
+    private void WriteLoopBody(BlockNode blockNode) throws Exception {
+        loopDepth++;
+        WriteStatements(blockNode.getStatement());
+        loopDepth--;
+    }
+
+    // for (k in arr) sets k to each key of arr, anything else is not a loop and does nothing
+    private void WriteForEach(ForEachNode forEachNode) throws Exception {
+        if (!(forEachNode.getCondition1() instanceof OperationNode opNode) || !(opNode.getLeft() instanceof VariableReferenceNode key)
+                || opNode.getRight().isEmpty() || !(opNode.getRight().get() instanceof VariableReferenceNode arrayNode)) {
+            return;
+        }
+        String keyName = "key" + keyCount++;
+        source.append("for (InterpreterDataType ").append(keyName).append(" : interpreter.GetArray(")
+                .append(Field("VariableReferenceNode", arrayNode)).append(", locals).Keys()) {\n");
+        if (GlobalScalar(key)) {
+            source.append("g[").append(key.slot).append("] = ").append(keyName).append(";\n");
+        } else if (LocalScalar(key)) {
+            source.append("locals[").append(key.slot).append("] = ").append(keyName).append(";\n");
+        } else if (key.expression == null || key.expression.isEmpty()) {
+            source.append("interpreter.AssignVariable(").append(Field("VariableReferenceNode", key)).append(", ").append(keyName).append(", locals);\n");
+        } else {    // the key goes in an element of another array
+            source.append("Put(").append(keyName).append(", interpreter.GetArray(").append(Field("VariableReferenceNode", key))
+                    .append(", locals), ").append(Value(key.expression.get())).append(");\n");
+        }
+        WriteLoopBody(forEachNode.getBlockNode());
+        source.append("}\n");
+    }
+
+    private static boolean GlobalScalar(VariableReferenceNode vNode) {
+        return vNode.slot != VariableReferenceNode.UNRESOLVED && !vNode.local && (vNode.expression == null || vNode.expression.isEmpty());
+    }
+
+    private static boolean LocalScalar(VariableReferenceNode vNode) {
+        return vNode.local && (vNode.expression == null || vNode.expression.isEmpty());
+    }
+
+    // writes a condition as a Java boolean, comparisons and logic are worked out without making a TRUE or FALSE value
+    private String Condition(Node node) throws Exception {
+        if (node instanceof OperationNode opNode) {
+            if (opNode.thisEnum == OperationNode.OperationList.NOT) { return "!(" + Condition(opNode.left) + ")"; }
+            if (opNode.right != null && opNode.right.isPresent()) {
+                Node right = opNode.right.get();
+                switch (opNode.thisEnum) {
+                    case EQ: return Compare(opNode, right, "==");
+                    case NE: return Compare(opNode, right, "!=");
+                    case LT: return Compare(opNode, right, "<");
+                    case LE: return Compare(opNode, right, "<=");
+                    case GT: return Compare(opNode, right, ">");
+                    case GE: return Compare(opNode, right, ">=");
+                    case AND: return "(" + Condition(opNode.left) + " && " + Condition(right) + ")";
+                    case OR: return "(" + Condition(opNode.left) + " || " + Condition(right) + ")";
+                    case MATCH: case NOTMATCH:
+                        String pattern = PatternField(right);
+                        if (pattern == null) { break; }
+                        String match = pattern + ".matcher(" + Value(opNode.left) + ".getStr()).find()";
+                        return opNode.thisEnum == OperationNode.OperationList.MATCH ? match : "!" + match;
+                    case IN:
+                        if (!(right instanceof VariableReferenceNode arrayNode)) { break; }
+                        return "interpreter.GetArray(" + Field("VariableReferenceNode", arrayNode) + ", locals).Contains(" + Value(opNode.left) + ")";
+                    default: break;
+                }
+            }
+        }
+        return "Interpreter.IsTrue(" + Value(node) + ")";
+    }
+
+    private String Compare(OperationNode opNode, Node right, String operator) throws Exception {
+        return "(Interpreter.CompareValues(" + Value(opNode.left) + ", " + Value(right) + ") " + operator + " 0)";
+    }
+
+    // the field with the compiled pattern of a match, or null when the pattern is not a literal that compiles
+    private String PatternField(Node right) {
+        if (!(right instanceof PatternNode patternNode)) { return null; }
+        try {
+            return Field("java.util.regex.Pattern", Pattern.compile(patternNode.getPattern()));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /*
+     * This method is used to write an expression as Java that gives the same
+     * InterpreterDataType the ClosureCompiler's closure would for the node.
+     *
+     * @return String
+     */
+    private String Value(Node node) throws Exception {
+        if (node instanceof ConstantNode constantNode) {
+            return Field("InterpreterDataType", constantNode.getValue());
+        } else if (node instanceof VariableReferenceNode vNode) {
+            if (GlobalScalar(vNode)) { return "Read(g[" + vNode.slot + "])"; }
+            if (LocalScalar(vNode)) { return "Read(locals[" + vNode.slot + "])"; }
+            if (vNode.expression == null || vNode.expression.isEmpty()) {
+                return "interpreter.GetVariable(" + Field("String", vNode.getName()) + ")";
+            }
+            return "Read(interpreter.GetArray(" + Field("VariableReferenceNode", vNode) + ", locals).Get(" + Value(vNode.expression.get()) + "))";
+        } else if (node instanceof AssignmentNode aNode) {
+            String assignment = Assignment(aNode);
+            if (assignment != null) { return assignment; }
+        } else if (node instanceof TernaryNode tNode && tNode.trueCase.isPresent() && tNode.falseCase.isPresent()) {
+            return "(" + Condition(tNode.checkCase) + " ? " + Value(tNode.trueCase.get()) + " : " + Value(tNode.falseCase.get()) + ")";
+        } else if (node instanceof OperationNode opNode) {
+            String operation = Operation(opNode);
+            if (operation != null) { return operation; }
+        } else if (node instanceof FunctionCallNode fNode) {
+            return FunctionCall(fNode);
+        }
+        return Field("CompiledExpression", closureCompiler.CompileExpression(node)) + ".Evaluate(locals)";
+    }
+
+    // the value is worked out before the index or field it goes in, like in the ClosureCompiler
+    private String Assignment(AssignmentNode aNode) throws Exception {
+        if (aNode.expression instanceof OperationNode opNode
+                && (opNode.thisEnum == OperationNode.OperationList.POSTINC || opNode.thisEnum == OperationNode.OperationList.POSTDEC)) {
+            long delta = opNode.thisEnum == OperationNode.OperationList.POSTINC ? 1 : -1;  // x++ and x-- give the number x held before
+            if (aNode.target instanceof VariableReferenceNode vNode && GlobalScalar(vNode)) { return "PostIncrement(g, " + vNode.slot + ", " + delta + ")"; }
+            if (aNode.target instanceof VariableReferenceNode vNode && LocalScalar(vNode)) { return "PostIncrement(locals, " + vNode.slot + ", " + delta + ")"; }
+            return null;
+        }
+        if (aNode.target instanceof VariableReferenceNode vNode) {
+            if (GlobalScalar(vNode)) { return "(g[" + vNode.slot + "] = " + Value(aNode.expression) + ")"; }
+            if (LocalScalar(vNode)) { return "(locals[" + vNode.slot + "] = " + Value(aNode.expression) + ")"; }
+            String value = Value(aNode.expression);
+            String variable = Field("VariableReferenceNode", vNode);
+            if (vNode.expression != null && vNode.expression.isPresent()) {
+                return "Put(" + value + ", interpreter.GetArray(" + variable + ", locals), " + Value(vNode.expression.get()) + ")";
+            }
+            return "Assign(" + value + ", " + variable + ", locals)";
+        } else if (aNode.target instanceof OperationNode fieldNode && fieldNode.thisEnum == OperationNode.OperationList.DOLLAR) {
+            return "SetField(" + Value(aNode.expression) + ", " + Value(fieldNode.left) + ")";
+        }
+        return null;
+    }
+
+    // returns null for an operation that is missing its right side or is not made the usual way, a closure runs those
+    private String Operation(OperationNode opNode) throws Exception {
+        switch (opNode.thisEnum) {
+            case DOLLAR: return "GetField(" + Value(opNode.left) + ")";
+            case PREINC: case POSTINC: return "Arithmetic.Increment(" + Value(opNode.left) + ", 1)";
+            case PREDEC: case POSTDEC: return "Arithmetic.Increment(" + Value(opNode.left) + ", -1)";
+            case UNARYPOS: return "Arithmetic.ToNumber(" + Value(opNode.left) + ")";
+            case UNARYNEG: return "Arithmetic.Negate(" + Value(opNode.left) + ")";
+            case NOT: return "InterpreterDataType.Of(" + Condition(opNode) + ")";
+            default: break;
+        }
+        if (opNode.right == null || opNode.right.isEmpty()) { return null; }
+        Node right = opNode.right.get();
+        switch (opNode.thisEnum) {
+            case EXPONENT: return "Arithmetic.Power(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case ADD: return "Arithmetic.Add(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case SUBTRACT: return "Arithmetic.Subtract(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case MULTIPLY: return "Arithmetic.Multiply(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case DIVIDE: return "Arithmetic.Divide(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case MODULO: return "Arithmetic.Modulo(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case CONCATENATION: return "ConcatenationDataType.Concatenate(" + Value(opNode.left) + ", " + Value(right) + ")";
+            case EQ: case NE: case LT: case LE: case GT: case GE: case AND: case OR:
+                return "InterpreterDataType.Of(" + Condition(opNode) + ")";
+            case MATCH: case NOTMATCH:
+                if (PatternField(right) == null) { return null; }    // Condition would come back here for it
+                return "InterpreterDataType.Of(" + Condition(opNode) + ")";
+            case IN:
+                if (!(right instanceof VariableReferenceNode)) { return null; }
+                return "InterpreterDataType.Of(" + Condition(opNode) + ")";
+            default: return null;
+        }
+    }
+
+    // a builtin is called straight from its field, and a user defined function through a call site method
+    private String FunctionCall(FunctionCallNode fNode) throws Exception {
+        String functionName = Interpreter.FunctionName(fNode);
+        FunctionDefinitionNode func = functionName == null ? null : interpreter.functionSource.get(functionName);
+        UserFunction userFunction = func == null && functionName != null ? interpreter.userFunctions.get(functionName) : null;
+        if (userFunction != null) { return CallSite(userFunction, fNode); }
+        if (!(func instanceof BuiltInFunctionDefinitionNode builtIn) || fNode.parameters.size() > 8) {
+            return Field("CompiledExpression", closureCompiler.CompileExpression(fNode)) + ".Evaluate(locals)";
+        }
+        String function = Field("BuiltInFunctionDefinitionNode", builtIn);
+        StringBuilder parameters = new StringBuilder();
+        for (int j = 0; j < fNode.parameters.size(); j++) {
+            Node parameter = fNode.parameters.get(j);
+            if (j > 0) { parameters.append(", "); }
+            if (!builtIn.variadic && functionName.equals("split") && (j == 1 || j == 3) && parameter instanceof VariableReferenceNode vNode) { // split fills these arrays so they are made if they do not exist yet
+                parameters.append("interpreter.GetArray(").append(Field("VariableReferenceNode", vNode)).append(", locals)");
+            } else {
+                parameters.append(Value(parameter));
+            }
+        }
+        if (!builtIn.variadic) {
+            return "Call(" + function + (parameters.length() > 0 ? ", " : "") + parameters + ")";
+        }
+        String call = "CallVariadic(" + function + ", new InterpreterDataType[] {" + parameters + "}, ";
+        if (fNode.getRedirectTarget() == null) { return call + "null, null)"; }
+        String redirect = Field("InterpreterDataType", new InterpreterDataType(interpreter.RedirectSymbol(fNode.getRedirectType())));
+        return call + redirect + ", " + Value(fNode.getRedirectTarget()) + ")";
+    }
+
+    /*
+     * This method is used to write a method for one call of a user defined
+     * function and return the call of that method. It works the arguments
+     * out in the caller's frame straight into the new one, a plain variable
+     * given to an array parameter being passed as the array itself, and runs
+     * the function with Interpreter.RunFunction.
+     *
+     * @return String
+     */
+    private String CallSite(UserFunction function, FunctionCallNode fNode) throws Exception {
+        Interpreter.CheckArguments(function, fNode);
+        String name = "Call" + callCount++;
+        String field = Field("UserFunction", function);
+        StringBuilder method = new StringBuilder();
+        method.append("    InterpreterDataType ").append(name).append("(InterpreterDataType[] locals) throws Exception {\n");
+        method.append("        InterpreterDataType[] frame = ").append(field).append(".PushFrame();\n");
+        method.append("        try {\n");
+        for (int j = 0; j < fNode.parameters.size(); j++) {
+            Node parameter = fNode.parameters.get(j);
+            String argument = function.IsArrayParameter(j) && Interpreter.IsArrayArgument(parameter)
+                    ? "interpreter.GetArray(" + Field("VariableReferenceNode", parameter) + ", locals)" : Value(parameter);
+            method.append("            frame[").append(j).append("] = ").append(argument).append(";\n");
+        }
+        method.append("            return interpreter.RunFunction(").append(field).append(", frame);\n");
+        method.append("        } finally {\n            ").append(field).append(".PopFrame();\n        }\n    }\n\n");
+        callSites.append(method);
+        return name + "(locals)";
+    }
+}
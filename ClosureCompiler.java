@@ -0,0 +1,543 @@
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/*
+ * The ClosureCompiler class which turns the rules of a program into trees of
+ * CompiledStatements and CompiledExpressions before they are run, which is the
+ * only way the Interpreter runs them. Every kind of node and every operator gets
+ * its own small lambda with the closures of its children already bound to it,
+ * so running a rule is a chain of direct calls instead of working out what
+ * every node is each time it is run. Everything that can be worked out from the
+ * node alone is done once here:
+ *   - the slot of a global and the keys of the parameters of a builtin
+ *   - the slot of a parameter in the frame of the function it belongs to
+ *   - which builtin or user defined function a call runs, and the symbol of its redirection
+ *   - the Pattern of a ~ or !~ match against a regular expression literal
+ * A node that is missing a part, or that can not be run, is compiled into a
+ * closure that throws when it is reached, so a broken part of a program only
+ * fails if it runs. The bodies of user defined functions are compiled the same
+ * way the first time they are called.
+ *
+ * The closures are bound to the Interpreter they were compiled for, so every
+ * parallel worker compiles the rules for itself.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class ClosureCompiler {
+    private final Interpreter interpreter;
+    private final InterpreterDataType[] globalSlots;
+
+    ClosureCompiler(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.globalSlots = interpreter.globalSlots;
+    }
+
+    // compiles each rule of a list of begin, main or end blocks
+    CompiledStatement[] CompileRules(List<BlockNode> blocks) throws Exception {
+        CompiledStatement[] rules = new CompiledStatement[blocks.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = CompileRule(blocks.get(i));
+        }
+        return rules;
+    }
+
+    // the body of a user defined function runs until it returns, it is given the frame of the call as its locals
+    CompiledStatement CompileFunction(FunctionDefinitionNode function) throws Exception {
+        CompiledStatement[] statements = CompileStatements(function.getStatementNodes());
+        return locals -> RunStatements(statements, locals);
+    }
+
+    // a rule runs all of its statements when it has no condition or its condition is true
+    private CompiledStatement CompileRule(BlockNode blockNode) throws Exception {
+        CompiledStatement[] statements = CompileStatements(blockNode.getStatement());
+        if (blockNode.getCondition() == null || blockNode.getCondition().isEmpty()) {
+            return locals -> RunRule(statements, locals);
+        }
+        CompiledExpression condition = CompileExpression(blockNode.getCondition().get());
+        return locals -> Interpreter.IsTrue(condition.Evaluate(locals)) ? RunRule(statements, locals) : ReturnType.NORMAL;
+    }
+
+    // the statements of a rule run until a next or exit, a break, continue or return outside of a loop only ends its own statement
+    private static ReturnType RunRule(CompiledStatement[] statements, InterpreterDataType[] locals) throws Exception {
+        for (CompiledStatement statement : statements) {
+            ReturnType result = statement.Execute(locals);
+            if (result == ReturnType.NEXT || result == ReturnType.EXIT) { return result; }
+        }
+        return ReturnType.NORMAL;
+    }
+
+    private CompiledStatement[] CompileStatements(LinkedList<StatementNode> statementNodes) throws Exception {
+        CompiledStatement[] statements = new CompiledStatement[statementNodes.size()];
+        int i = 0;
+        for (StatementNode statementNode : statementNodes) {
+            statements[i++] = CompileStatement(statementNode);
+        }
+        return statements;
+    }
+
+    // runs a list of statements until one of them does not end normally
+    private static ReturnType RunStatements(CompiledStatement[] statements, InterpreterDataType[] locals) throws Exception {
+        for (CompiledStatement statement : statements) {
+            ReturnType result = statement.Execute(locals);
+            if (result.getReturnEnum() != ReturnType.ReturnEnums.Normal) { return result; }
+        }
+        return ReturnType.NORMAL;
+    }
+
+    CompiledStatement CompileStatement(StatementNode stmt) throws Exception {
+        if (stmt instanceof BreakNode) {
+            return locals -> ReturnType.BREAK;
+        } else if (stmt instanceof ContinueNode) {
+            return locals -> ReturnType.CONTINUE;
+        } else if (stmt instanceof IfNode ifNode) {
+            return CompileIf(ifNode);
+        } else if (stmt instanceof WhileNode whileNode) {
+            CompiledExpression condition = CompileExpression(whileNode.getCondition());
+            CompiledStatement[] body = CompileStatements(whileNode.getBlockNode().getStatement());
+            return locals -> {
+                while (Interpreter.IsTrue(condition.Evaluate(locals))) {
+                    ReturnType result = RunStatements(body, locals);
+                    if (result.getReturnEnum() == ReturnType.ReturnEnums.Break) { break; }
+                    if (result.EndsLoops()) { return result; }
+                }
+                return ReturnType.NORMAL;
+            };
+        } else if (stmt instanceof DoWhileNode doWhileNode) {
+            CompiledExpression condition = CompileExpression(doWhileNode.getCondition());
+            CompiledStatement[] body = CompileStatements(doWhileNode.getBlockNode().getStatement());
+            return locals -> {
+                do {
+                    ReturnType result = RunStatements(body, locals);
+                    if (result.getReturnEnum() == ReturnType.ReturnEnums.Break) { break; }
+                    if (result.EndsLoops()) { return result; }
+                } while (Interpreter.IsTrue(condition.Evaluate(locals)));
+                return ReturnType.NORMAL;
+            };
+        } else if (stmt instanceof ForNode forNode) {
+            CompiledExpression initialize = forNode.getCondition1() == null ? null : CompileExpression(forNode.getCondition1());
+            CompiledExpression condition = forNode.condition2 == null ? locals -> InterpreterDataType.TRUE : CompileExpression(forNode.condition2);   // for (;;) loops until a break
+            CompiledExpression update = forNode.getCondition3() == null ? null : CompileExpression(forNode.getCondition3());
+            CompiledStatement[] body = CompileStatements(forNode.getBlockNode().getStatement());
+            return locals -> {
+                if (initialize != null) { initialize.Evaluate(locals); }
+                while (Interpreter.IsTrue(condition.Evaluate(locals))) {
+                    ReturnType result = RunStatements(body, locals);
+                    if (result.getReturnEnum() == ReturnType.ReturnEnums.Break) { break; }
+                    if (result.EndsLoops()) { return result; }
+                    if (update != null) { update.Evaluate(locals); }
+                }
+                return ReturnType.NORMAL;
+            };
+        } else if (stmt instanceof ForEachNode forEachNode) {
+            return CompileForEach(forEachNode);
+        } else if (stmt instanceof ReturnNode returnNode) {
+            if (returnNode.getStatement() == null) {
+                return locals -> {
+                    interpreter.returnValue = InterpreterDataType.EMPTY;
+                    return ReturnType.RETURN;
+                };
+            }
+            CompiledExpression value = CompileExpression(returnNode.getStatement());
+            return locals -> {
+                interpreter.returnValue = value.Evaluate(locals);   // the value is handed back through the Interpreter
+                return ReturnType.RETURN;
+            };
+        } else if (stmt instanceof DeleteNode deleteNode) {
+            return CompileDelete(deleteNode);
+        } else if (stmt instanceof FunctionCallNode fNode && fNode.functionName.getTokenType() == Token.TokenType.NEXT) {
+            return locals -> ReturnType.NEXT;
+        } else if (stmt instanceof FunctionCallNode fNode && fNode.functionName.getTokenType() == Token.TokenType.EXIT) {
+            if (fNode.parameters.isEmpty()) { return locals -> ReturnType.EXIT; }
+            CompiledExpression status = CompileExpression(fNode.parameters.get(0));
+            return locals -> {
+                interpreter.exitStatus = (int) status.Evaluate(locals).getNum();
+                return ReturnType.EXIT;
+            };
+        }
+        CompiledExpression expression = CompileExpression(stmt);
+        return locals -> {
+            expression.Evaluate(locals);
+            return ReturnType.NORMAL;   // nothing uses the value of a statement
+        };
+    }
+
+    // delete removes one element of an array, or all of them when there is no index
+    private CompiledStatement CompileDelete(DeleteNode deleteNode) throws Exception {
+        if (!(deleteNode.getCondition() instanceof VariableReferenceNode vNode)) {
+            return locals -> { throw new Exception("Incorrect delete condition: ClosureCompiler<CompileDelete>"); };
+        }
+        if (vNode.expression == null || vNode.expression.isEmpty()) {
+            return locals -> {
+                interpreter.Delete(vNode, null, locals);
+                return ReturnType.NORMAL;
+            };
+        }
+        CompiledExpression index = CompileExpression(vNode.expression.get());
+        return locals -> {
+            interpreter.Delete(vNode, index.Evaluate(locals), locals);
+            return ReturnType.NORMAL;
+        };
+    }
+
+    // an if and its else ifs become one closure that walks their conditions, an else has no condition
+    private CompiledStatement CompileIf(IfNode ifNode) throws Exception {
+        int count = 0;
+        for (IfNode curr = ifNode; curr != null; curr = (IfNode) curr.getNext()) { count++; }
+        CompiledExpression[] conditions = new CompiledExpression[count];
+        CompiledStatement[][] bodies = new CompiledStatement[count][];
+        int i = 0;
+        for (IfNode curr = ifNode; curr != null; curr = (IfNode) curr.getNext(), i++) {
+            conditions[i] = curr.getCondition() == null ? null : CompileExpression(curr.getCondition());
+            bodies[i] = CompileStatements(curr.getBlockNode().getStatement());
+        }
+        if (count == 1) {   // a plain if without an else
+            CompiledExpression condition = conditions[0];
+            CompiledStatement[] body = bodies[0];
+            return locals -> condition == null || Interpreter.IsTrue(condition.Evaluate(locals)) ? RunStatements(body, locals) : ReturnType.NORMAL;
+        }
+        return locals -> {
+            for (int j = 0; j < conditions.length; j++) {
+                if (conditions[j] == null || Interpreter.IsTrue(conditions[j].Evaluate(locals))) {
+                    return RunStatements(bodies[j], locals);
+                }
+            }
+            return ReturnType.NORMAL;
+        };
+    }
+
+    // for (k in arr) sets k to each key of arr, anything else is not a loop and does nothing
+    private CompiledStatement CompileForEach(ForEachNode forEachNode) throws Exception {
+        if (!(forEachNode.getCondition1() instanceof OperationNode opNode) || !(opNode.getLeft() instanceof VariableReferenceNode key)
+                || opNode.getRight().isEmpty() || !(opNode.getRight().get() instanceof VariableReferenceNode arrayNode)) {
+            return locals -> ReturnType.NORMAL;
+        }
+        CompiledStatement[] body = CompileStatements(forEachNode.getBlockNode().getStatement());
+        CompiledExpression keyIndex = key.expression == null || key.expression.isEmpty() ? null : CompileExpression(key.expression.get());
+        return locals -> {
+            for (InterpreterDataType currKey : interpreter.GetArray(arrayNode, locals).Keys()) {
+                if (keyIndex == null) {
+                    interpreter.AssignVariable(key, currKey, locals);
+                } else {    // the key goes in an element of another array
+                    interpreter.GetArray(key, locals).Put(keyIndex.Evaluate(locals), currKey);
+                }
+                ReturnType result = RunStatements(body, locals);
+                if (result.getReturnEnum() == ReturnType.ReturnEnums.Break) { break; }
+                if (result.EndsLoops()) { return result; }
+            }
+            return ReturnType.NORMAL;
+        };
+    }
+
+    /*
+     * This method is used to compile an expression into a closure that gives
+     * its value.
+     *
+     * @return CompiledExpression
+     */
+    CompiledExpression CompileExpression(Node node) throws Exception {
+        if (node instanceof ConstantNode constantNode) {
+            InterpreterDataType value = constantNode.getValue();
+            return locals -> value;
+        } else if (node instanceof VariableReferenceNode vNode) {
+            return CompileVariable(vNode);
+        } else if (node instanceof AssignmentNode aNode) {
+            return CompileAssignment(aNode);
+        } else if (node instanceof TernaryNode tNode) {
+            CompiledExpression checkCase = CompileExpression(tNode.checkCase);
+            CompiledExpression trueCase = tNode.trueCase.isPresent() ? CompileExpression(tNode.trueCase.get()) : Fail("trueCase is Empty: ClosureCompiler<CompileExpression(TernaryNode)>");
+            CompiledExpression falseCase = tNode.falseCase.isPresent() ? CompileExpression(tNode.falseCase.get()) : Fail("falseCase is Empty: ClosureCompiler<CompileExpression(TernaryNode)>");
+            return locals -> Interpreter.IsTrue(checkCase.Evaluate(locals)) ? trueCase.Evaluate(locals) : falseCase.Evaluate(locals);
+        } else if (node instanceof OperationNode opNode) {
+            return CompileOperation(opNode);
+        } else if (node instanceof FunctionCallNode fNode) {
+            return CompileFunctionCall(fNode);
+        } else if (node instanceof PatternNode) {
+            return Fail("Passing Pattern to Function: ClosureCompiler<CompileExpression(PatternNode)>");
+        }
+        return Fail("Node is not found: ClosureCompiler<CompileExpression>");
+    }
+
+    // a closure for a node that can not be run, it throws when it is reached
+    private static CompiledExpression Fail(String message) {
+        return locals -> { throw new Exception(message); };
+    }
+
+    // a global with a slot or a parameter is read straight from it, the special variables are looked up by name
+    private CompiledExpression CompileVariable(VariableReferenceNode vNode) throws Exception {
+        boolean global = vNode.slot != VariableReferenceNode.UNRESOLVED && !vNode.local;
+        if (vNode.expression == null || vNode.expression.isEmpty()) {
+            int slot = vNode.slot;
+            if (vNode.local) {
+                return locals -> {
+                    InterpreterDataType value = locals[slot];
+                    return value == null ? InterpreterDataType.EMPTY : value;
+                };
+            }
+            if (!global) {
+                String name = vNode.getName();
+                return locals -> interpreter.GetVariable(name);
+            }
+            return locals -> {
+                InterpreterDataType value = globalSlots[slot];
+                return value == null ? InterpreterDataType.EMPTY : value;
+            };
+        }
+        CompiledExpression index = CompileExpression(vNode.expression.get());
+        return locals -> {
+            InterpreterDataType element = interpreter.GetArray(vNode, locals).Get(index.Evaluate(locals));
+            return element == null ? InterpreterDataType.EMPTY : element;
+        };
+    }
+
+    private CompiledExpression CompileAssignment(AssignmentNode aNode) throws Exception {
+        if (aNode.expression instanceof OperationNode opNode
+                && (opNode.thisEnum == OperationNode.OperationList.POSTINC || opNode.thisEnum == OperationNode.OperationList.POSTDEC)) {
+            return CompilePostIncrement(aNode.target, opNode.thisEnum == OperationNode.OperationList.POSTINC ? 1 : -1);
+        }
+        CompiledExpression expression = CompileExpression(aNode.expression);
+        if (aNode.target instanceof VariableReferenceNode vNode) {
+            if (vNode.slot != VariableReferenceNode.UNRESOLVED && !vNode.local && (vNode.expression == null || vNode.expression.isEmpty())) {
+                int slot = vNode.slot;
+                return locals -> {
+                    InterpreterDataType value = expression.Evaluate(locals);
+                    globalSlots[slot] = value;
+                    return value;
+                };
+            }
+            if (vNode.local && (vNode.expression == null || vNode.expression.isEmpty())) {
+                int slot = vNode.slot;
+                return locals -> {
+                    InterpreterDataType value = expression.Evaluate(locals);
+                    locals[slot] = value;
+                    return value;
+                };
+            }
+            if (vNode.expression != null && vNode.expression.isPresent()) {   // the value is worked out before the index
+                CompiledExpression index = CompileExpression(vNode.expression.get());
+                return locals -> {
+                    InterpreterDataType value = expression.Evaluate(locals);
+                    interpreter.GetArray(vNode, locals).Put(index.Evaluate(locals), value);
+                    return value;
+                };
+            }
+            return locals -> {
+                InterpreterDataType value = expression.Evaluate(locals);
+                interpreter.AssignVariable(vNode, value, locals);
+                return value;
+            };
+        } else if (aNode.target instanceof OperationNode fieldNode && fieldNode.thisEnum == OperationNode.OperationList.DOLLAR) {
+            CompiledExpression field = CompileExpression(fieldNode.left);
+            return locals -> {
+                InterpreterDataType value = expression.Evaluate(locals);
+                interpreter.lineManager.SetField(interpreter.FieldIndex(field.Evaluate(locals)), value.getStr());
+                return value;
+            };
+        }
+        return Fail("Node is not found: ClosureCompiler<CompileAssignment>");
+    }
+
+    /*
+     * This method is used to compile x++ and x--, which store the value
+     * moved by delta but give back the number x held before. The target is
+     * read once, so the index of an element or field is only worked out once.
+     *
+     * @return CompiledExpression
+     */
+    private CompiledExpression CompilePostIncrement(Node target, long delta) throws Exception {
+        if (target instanceof VariableReferenceNode vNode) {
+            int slot = vNode.slot;
+            if (vNode.expression != null && vNode.expression.isPresent()) {
+                CompiledExpression index = CompileExpression(vNode.expression.get());
+                return locals -> {
+                    InterpreterArrayDataType array = interpreter.GetArray(vNode, locals);
+                    InterpreterDataType key = index.Evaluate(locals);
+                    InterpreterDataType element = array.Get(key);
+                    InterpreterDataType old = Arithmetic.ToNumber(element == null ? InterpreterDataType.EMPTY : element);
+                    array.Put(key, Arithmetic.Increment(old, delta));
+                    return old;
+                };
+            } else if (vNode.local) {
+                return locals -> {
+                    InterpreterDataType old = Arithmetic.ToNumber(locals[slot] == null ? InterpreterDataType.EMPTY : locals[slot]);
+                    locals[slot] = Arithmetic.Increment(old, delta);
+                    return old;
+                };
+            } else if (slot != VariableReferenceNode.UNRESOLVED) {
+                return locals -> {
+                    InterpreterDataType old = Arithmetic.ToNumber(globalSlots[slot] == null ? InterpreterDataType.EMPTY : globalSlots[slot]);
+                    globalSlots[slot] = Arithmetic.Increment(old, delta);
+                    return old;
+                };
+            }
+            String name = vNode.getName();
+            return locals -> {
+                InterpreterDataType old = Arithmetic.ToNumber(interpreter.GetVariable(name));
+                interpreter.AssignVariable(vNode, Arithmetic.Increment(old, delta), locals);
+                return old;
+            };
+        } else if (target instanceof OperationNode fieldNode && fieldNode.thisEnum == OperationNode.OperationList.DOLLAR) {
+            CompiledExpression field = CompileExpression(fieldNode.left);
+            return locals -> {
+                int index = interpreter.FieldIndex(field.Evaluate(locals));
+                InterpreterDataType old = Arithmetic.ToNumber(interpreter.lineManager.GetField(index));
+                interpreter.lineManager.SetField(index, Arithmetic.Increment(old, delta).getStr());
+                return old;
+            };
+        }
+        return Fail("Node is not found: ClosureCompiler<CompilePostIncrement>");
+    }
+
+    // an operation that is missing its right side throws once its left side has been worked out
+    private CompiledExpression CompileOperation(OperationNode opNode) throws Exception {
+        CompiledExpression left = CompileExpression(opNode.left);
+        switch (opNode.thisEnum) {
+            case NOT: return locals -> InterpreterDataType.Of(!Interpreter.IsTrue(left.Evaluate(locals)));
+            case DOLLAR: return locals -> interpreter.lineManager.GetField(interpreter.FieldIndex(left.Evaluate(locals)));
+            case PREINC: case POSTINC: return locals -> Arithmetic.Increment(left.Evaluate(locals), 1);  // the assignment around a POSTINC gives the old value
+            case PREDEC: case POSTDEC: return locals -> Arithmetic.Increment(left.Evaluate(locals), -1);
+            case UNARYPOS: return locals -> Arithmetic.ToNumber(left.Evaluate(locals));
+            case UNARYNEG: return locals -> Arithmetic.Negate(left.Evaluate(locals));
+            default: break;
+        }
+        if (opNode.right == null || opNode.right.isEmpty()) {
+            String message = "Right is Empty: ClosureCompiler<CompileOperation(" + opNode.thisEnum + ")>";
+            return locals -> {
+                left.Evaluate(locals);
+                throw new Exception(message);
+            };
+        }
+        Node rightNode = opNode.right.get();
+        if (opNode.thisEnum == OperationNode.OperationList.MATCH || opNode.thisEnum == OperationNode.OperationList.NOTMATCH) {
+            return CompileMatch(opNode, left, rightNode);
+        } else if (opNode.thisEnum == OperationNode.OperationList.IN) {
+            if (!(rightNode instanceof VariableReferenceNode arrayNode)) { return Fail("Not an Array: ClosureCompiler<CompileOperation(IN)>"); }
+            return locals -> InterpreterDataType.Of(interpreter.GetArray(arrayNode, locals).Contains(left.Evaluate(locals)));
+        } else if (opNode.thisEnum == OperationNode.OperationList.ASSIGN) { // the AssignmentNode around it stores the value, this only gives it
+            if (!(opNode.left instanceof VariableReferenceNode || (opNode.left instanceof OperationNode fieldNode && fieldNode.thisEnum == OperationNode.OperationList.DOLLAR))) {
+                return Fail("Assign Error: ClosureCompiler<CompileOperation(ASSIGN)>");
+            }
+            return CompileExpression(rightNode);
+        }
+        CompiledExpression right = CompileExpression(rightNode);
+        switch (opNode.thisEnum) {
+            case EXPONENT: return locals -> Arithmetic.Power(left.Evaluate(locals), right.Evaluate(locals));
+            case ADD: return locals -> Arithmetic.Add(left.Evaluate(locals), right.Evaluate(locals));
+            case SUBTRACT: return locals -> Arithmetic.Subtract(left.Evaluate(locals), right.Evaluate(locals));
+            case MULTIPLY: return locals -> Arithmetic.Multiply(left.Evaluate(locals), right.Evaluate(locals));
+            case DIVIDE: return locals -> Arithmetic.Divide(left.Evaluate(locals), right.Evaluate(locals));
+            case MODULO: return locals -> Arithmetic.Modulo(left.Evaluate(locals), right.Evaluate(locals));
+            case EQ: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) == 0);
+            case NE: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) != 0);
+            case LT: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) < 0);
+            case LE: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) <= 0);
+            case GT: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) > 0);
+            case GE: return locals -> InterpreterDataType.Of(Interpreter.CompareValues(left.Evaluate(locals), right.Evaluate(locals)) >= 0);
+            case AND: return locals -> InterpreterDataType.Of(Interpreter.IsTrue(left.Evaluate(locals)) && Interpreter.IsTrue(right.Evaluate(locals)));
+            case OR: return locals -> InterpreterDataType.Of(Interpreter.IsTrue(left.Evaluate(locals)) || Interpreter.IsTrue(right.Evaluate(locals)));
+            case CONCATENATION: return locals -> ConcatenationDataType.Concatenate(left.Evaluate(locals), right.Evaluate(locals));
+            default: return Fail("Node is not found: ClosureCompiler<CompileOperation(" + opNode.thisEnum + ")>");
+        }
+    }
+
+    /*
+     * This method is used to compile a ~ or !~ match. A regular expression
+     * literal is compiled once, anything else is worked out when it runs and
+     * its string is used as the regular expression. A regular expression
+     * that does not compile throws when the match is reached.
+     *
+     * @return CompiledExpression
+     */
+    private CompiledExpression CompileMatch(OperationNode opNode, CompiledExpression left, Node rightNode) throws Exception {
+        boolean match = opNode.thisEnum == OperationNode.OperationList.MATCH;
+        String message = "Error in Regex Matching: ClosureCompiler<CompileMatch(" + opNode.thisEnum + ")>";
+        if (!(rightNode instanceof PatternNode patternNode)) {
+            CompiledExpression right = CompileExpression(rightNode);
+            return locals -> {
+                String leftString = left.Evaluate(locals).getStr();
+                try {
+                    return InterpreterDataType.Of(Pattern.compile(right.Evaluate(locals).getStr()).matcher(leftString).find() == match);
+                } catch (PatternSyntaxException e) {
+                    throw new Exception(message);
+                }
+            };
+        }
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(patternNode.getPattern());
+        } catch (PatternSyntaxException e) {
+            return Fail(message);
+        }
+        if (match) {
+            return locals -> InterpreterDataType.Of(pattern.matcher(left.Evaluate(locals).getStr()).find());
+        }
+        return locals -> InterpreterDataType.Of(!pattern.matcher(left.Evaluate(locals).getStr()).find());
+    }
+
+    // a builtin or user defined function is found once and its parameters are compiled
+    private CompiledExpression CompileFunctionCall(FunctionCallNode fNode) throws Exception {
+        String functionName = Interpreter.FunctionName(fNode);
+        FunctionDefinitionNode func = functionName == null ? null : interpreter.functionSource.get(functionName);
+        UserFunction function = func == null && functionName != null ? interpreter.userFunctions.get(functionName) : null;
+        if (function != null) {
+            CompiledExpression[] arguments = CompileArguments(function, fNode);
+            return locals -> interpreter.CallFunction(function, arguments, locals);
+        }
+        if (!(func instanceof BuiltInFunctionDefinitionNode builtIn)) { // a function that was never defined gives an empty value
+            return locals -> InterpreterDataType.EMPTY;
+        }
+        CompiledExpression[] parameters = new CompiledExpression[fNode.parameters.size()];
+        String[] keys = new String[parameters.length];    // the keys builtins read their parameters with
+        for (int j = 0; j < parameters.length; j++) {
+            keys[j] = Integer.toString(j);
+            Node parameter = fNode.parameters.get(j);
+            if (!builtIn.variadic && functionName.equals("split") && (j == 1 || j == 3) && parameter instanceof VariableReferenceNode vNode) { // split fills these arrays so they are made if they do not exist yet
+                parameters[j] = locals -> interpreter.GetArray(vNode, locals);
+            } else {
+                parameters[j] = CompileExpression(parameter);
+            }
+        }
+        if (!builtIn.variadic) {
+            return locals -> {
+                HashMap<String, InterpreterDataType> map = new HashMap<>();
+                for (int j = 0; j < parameters.length; j++) {
+                    map.put(keys[j], parameters[j].Evaluate(locals));
+                }
+                return new InterpreterDataType(builtIn.Execute(map));
+            };
+        }
+        InterpreterDataType redirect = fNode.getRedirectTarget() == null ? null : new InterpreterDataType(interpreter.RedirectSymbol(fNode.getRedirectType()));
+        CompiledExpression target = fNode.getRedirectTarget() == null ? null : CompileExpression(fNode.getRedirectTarget());
+        return locals -> {
+            HashMap<String, InterpreterDataType> map = new HashMap<>();
+            InterpreterArrayDataType iadt = new InterpreterArrayDataType();
+            for (int j = 0; j < parameters.length; j++) {
+                iadt.Put(j, parameters[j].Evaluate(locals));
+            }
+            map.put("0", iadt);
+            if (redirect != null) {     // print or printf output is redirected
+                map.put("redirect", redirect);
+                map.put("target", target.Evaluate(locals));
+            }
+            return new InterpreterDataType(builtIn.Execute(map));
+        };
+    }
+
+    // the arguments of a call to a user defined function, a plain variable given to an array parameter is passed as the array itself
+    CompiledExpression[] CompileArguments(UserFunction function, FunctionCallNode fNode) throws Exception {
+        Interpreter.CheckArguments(function, fNode);
+        CompiledExpression[] arguments = new CompiledExpression[fNode.parameters.size()];
+        for (int j = 0; j < arguments.length; j++) {
+            Node parameter = fNode.parameters.get(j);
+            if (function.IsArrayParameter(j) && Interpreter.IsArrayArgument(parameter)) {
+                VariableReferenceNode vNode = (VariableReferenceNode) parameter;
+                arguments[j] = locals -> interpreter.GetArray(vNode, locals);
+            } else {
+                arguments[j] = CompileExpression(parameter);
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * The CompiledExpression interface which is what the ClosureCompiler turns
+ * an expression into, with everything about its node worked out already.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    /*
+     * This method is used to work out the value of the expression
+     * with the given frame of local variables.
+     *
+     * @return InterpreterDataType
+     */
+    InterpreterDataType Evaluate(InterpreterDataType[] locals) throws Exception;
+}
@@ -0,0 +1,18 @@
+/*
+ * The CompiledStatement interface which is what the ClosureCompiler turns
+ * a statement or a whole rule into.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+@FunctionalInterface
+public interface CompiledStatement {
+
+    /*
+     * This method is used to run the statement with the given frame of
+     * local variables, returning whether it ended normally or with a break,
+     * continue, return, next or exit.
+     *
+     * @return ReturnType
+     */
+    ReturnType Execute(InterpreterDataType[] locals) throws Exception;
+}
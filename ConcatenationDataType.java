@@ -0,0 +1,82 @@
+/*
+ * The Concatenation Data Type class which extends Interpreter Data Type and is
+ * what concatenating strings makes. Short results are plain strings. A longer
+ * one is the first length chars of a StringBuilder that can be shared with the
+ * values it was built from, so s = s $i appends $i to the builder s already
+ * uses instead of copying all of s every time. A value can only append to its
+ * builder while nothing has been appended past its own end, otherwise another
+ * value already owns what comes next and the chars are copied to a new builder.
+ * The string is only made from the builder when the value is used as a whole.
+ *
+ * Like in AWK, the result of a concatenation is a string even if it looks like a number.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class ConcatenationDataType extends InterpreterDataType {
+    static final int BUILDER_THRESHOLD = 256;  // results shorter than this are just made into strings
+
+    private final StringBuilder builder;    // null for a plain string
+    private final int length;
+
+    private ConcatenationDataType(String str) {
+        super(str);
+        this.builder = null;
+        this.length = str.length();
+    }
+
+    private ConcatenationDataType(StringBuilder builder, int length) {
+        super((String) null);
+        this.builder = builder;
+        this.length = length;
+    }
+
+    /*
+     * This method is used to concatenate two values, appending to the
+     * builder of the left one when nothing else has been appended to it.
+     *
+     * @return InterpreterDataType
+     */
+    static InterpreterDataType Concatenate(InterpreterDataType left, InterpreterDataType right) {
+        String rightStr = right.getStr();
+        if (left instanceof ConcatenationDataType concatenation && concatenation.builder != null) {
+            StringBuilder shared = concatenation.builder;
+            synchronized (shared) {     // parallel workers can share a value made before they started
+                if (shared.length() == concatenation.length) {
+                    shared.append(rightStr);
+                    return new ConcatenationDataType(shared, shared.length());
+                }
+            }
+        }
+        String leftStr = left.getStr();
+        int total = leftStr.length() + rightStr.length();
+        if (total < BUILDER_THRESHOLD) { return new ConcatenationDataType(leftStr.concat(rightStr)); }
+        StringBuilder builder = new StringBuilder(total * 2).append(leftStr).append(rightStr);
+        return new ConcatenationDataType(builder, total);
+    }
+
+    @Override
+    String getStr() {
+        if (str == null) {
+            synchronized (builder) {
+                str = builder.substring(0, length);
+            }
+        }
+        return str;
+    }
+
+    @Override
+    boolean IsNumeric() {
+        return false;
+    }
+
+    @Override
+    double getNum() {
+        getStr();
+        return super.getNum();
+    }
+
+    // the length without making the string
+    int Length() {
+        return length;
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Optional;
+
+/*
+ * The ConstantFolder class which simplifies a program after it is parsed and before
+ * it is run. Operations whose operands are all constants are worked out once and
+ * replaced by a ConstantNode holding the answer, so 60 * 60 * 24 or "a" == "a" cost
+ * nothing at run time. Conditions that turn out to be constant are simplified too:
+ *   - a rule whose pattern is always true loses its pattern, and one that is never true is dropped
+ *   - an if that is always true keeps only its block, and one that is never true is replaced by its else
+ *   - a while loop that never runs is dropped
+ *   - a ternary with a constant condition is replaced by the branch it picks
+ * The answers are worked out with Arithmetic and the comparisons of the Interpreter, so
+ * a folded program does exactly what it would have done without folding.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class ConstantFolder {
+
+    private ConstantFolder() {
+    }
+
+    // folds the constants in every rule and function of the program, changing the nodes in place
+    static void Fold(Parser.ProgramNode programNode) {
+        FoldBlocks(programNode.getBeginBlockNodes());
+        FoldBlocks(programNode.getOtherBlockNodes());
+        FoldBlocks(programNode.getEndBlockNodes());
+        for (FunctionDefinitionNode function : programNode.getFunctionNodes()) {
+            FoldStatements(function.getStatementNodes());
+        }
+    }
+
+    private static void FoldBlocks(List<BlockNode> blocks) {
+        Iterator<BlockNode> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            BlockNode block = iterator.next();
+            if (block.getCondition() != null && block.getCondition().isPresent()) {
+                Node condition = FoldExpression(block.getCondition().get());
+                if (condition instanceof ConstantNode cNode) {
+                    if (!Interpreter.IsTrue(cNode.getValue())) { // the rule can never run
+                        iterator.remove();
+                        continue;
+                    }
+                    block.setCondition(Optional.empty());
+                } else {
+                    block.setCondition(Optional.of(condition));
+                }
+            }
+            FoldStatements(block.getStatement());
+        }
+    }
+
+    private static void FoldStatements(LinkedList<StatementNode> statements) {
+        ListIterator<StatementNode> iterator = statements.listIterator();
+        while (iterator.hasNext()) {
+            StatementNode folded = FoldStatement(iterator.next());
+            if (folded == null) { // the statement can never do anything
+                iterator.remove();
+            } else {
+                iterator.set(folded);
+            }
+        }
+    }
+
+    /*
+     * This method is used to fold the constants inside of a statement.
+     * It returns the statement to run in its place, or null if the
+     * statement can be left out.
+     *
+     * @return StatementNode
+     */
+    private static StatementNode FoldStatement(StatementNode stmt) {
+        if (stmt instanceof IfNode ifNode) {
+            return FoldIf(ifNode);
+        } else if (stmt instanceof WhileNode whileNode) {
+            whileNode.condition = FoldExpression(whileNode.condition);
+            if (whileNode.condition instanceof ConstantNode cNode && !Interpreter.IsTrue(cNode.getValue())) { return null; }
+            FoldStatements(whileNode.blockNode.getStatement());
+        } else if (stmt instanceof DoWhileNode doWhileNode) { // the block always runs once so the loop is kept
+            doWhileNode.condition = FoldExpression(doWhileNode.condition);
+            FoldStatements(doWhileNode.blockNode.getStatement());
+        } else if (stmt instanceof ForNode forNode) {
+            forNode.condition1 = FoldExpression(forNode.condition1);
+            forNode.condition2 = FoldExpression(forNode.condition2);
+            forNode.condition3 = FoldExpression(forNode.condition3);
+            FoldStatements(forNode.blockNode.getStatement());
+        } else if (stmt instanceof ForEachNode forEachNode) {
+            FoldStatements(forEachNode.blockNode.getStatement());
+        } else if (stmt instanceof ReturnNode returnNode) {
+            returnNode.statement = FoldExpression(returnNode.statement);
+        } else if (stmt instanceof DeleteNode deleteNode) {
+            deleteNode.condition = FoldExpression(deleteNode.condition);
+        } else {
+            FoldExpression(stmt); // assignments and function calls are folded in place
+        }
+        return stmt;
+    }
+
+    // folds an if and the else ifs after it, dropping the branches that can never run
+    private static StatementNode FoldIf(IfNode ifNode) {
+        if (ifNode == null) { return null; }
+        FoldStatements(ifNode.blockNode.getStatement());
+        ifNode.next = FoldIf((IfNode) ifNode.next);
+        if (ifNode.condition == null) { return ifNode; } // an else
+        ifNode.condition = FoldExpression(ifNode.condition);
+        if (ifNode.condition instanceof ConstantNode cNode) {
+            if (!Interpreter.IsTrue(cNode.getValue())) { return ifNode.next; }
+            ifNode.condition = null; // always true so it runs like an else and the branches after it are never reached
+            ifNode.next = null;
+        }
+        return ifNode;
+    }
+
+    /*
+     * This method is used to fold the constants inside of an expression.
+     * It returns a ConstantNode when the whole expression is constant,
+     * and otherwise the same node with its operands folded.
+     *
+     * @return Node
+     */
+    private static Node FoldExpression(Node node) {
+        if (node instanceof OperationNode opNode) {
+            opNode.left = FoldExpression(opNode.left);
+            if (opNode.right != null && opNode.right.isPresent()) { opNode.right = Optional.of(FoldExpression(opNode.right.get())); }
+            InterpreterDataType value = Evaluate(opNode);
+            if (value != null) { return new ConstantNode(value); }
+        } else if (node instanceof TernaryNode tNode) {
+            tNode.checkCase = FoldExpression(tNode.checkCase);
+            if (tNode.trueCase.isPresent()) { tNode.trueCase = Optional.of(FoldExpression(tNode.trueCase.get())); }
+            if (tNode.falseCase.isPresent()) { tNode.falseCase = Optional.of(FoldExpression(tNode.falseCase.get())); }
+            if (tNode.checkCase instanceof ConstantNode cNode) {
+                Optional<Node> branch = Interpreter.IsTrue(cNode.getValue()) ? tNode.trueCase : tNode.falseCase;
+                if (branch.isPresent()) { return branch.get(); }
+            }
+        } else if (node instanceof MathOpNode mathNode) {
+            mathNode.left = FoldExpression(mathNode.left);
+            if (mathNode.right != null && mathNode.right.isPresent()) { mathNode.right = Optional.of(FoldExpression(mathNode.right.get())); }
+        } else if (node instanceof VariableReferenceNode vNode) { // only the index of an array element can be folded
+            if (vNode.expression != null && vNode.expression.isPresent()) { vNode.expression = Optional.of(FoldExpression(vNode.expression.get())); }
+        } else if (node instanceof AssignmentNode aNode) {
+            aNode.target = FoldExpression(aNode.target);
+            aNode.expression = FoldExpression(aNode.expression);
+        } else if (node instanceof FunctionCallNode fNode) {
+            if (fNode.parameters != null) { fNode.parameters.replaceAll(ConstantFolder::FoldExpression); }
+            fNode.redirectTarget = FoldExpression(fNode.redirectTarget);
+        }
+        return node;
+    }
+
+    /*
+     * This method is used to work out an operation whose operands are
+     * constants. It returns null if the operation is not constant or is
+     * one that can not be folded, like a field or an increment.
+     *
+     * @return InterpreterDataType
+     */
+    private static InterpreterDataType Evaluate(OperationNode opNode) {
+        if (!(opNode.left instanceof ConstantNode leftNode)) { return null; }
+        InterpreterDataType left = leftNode.getValue();
+        OperationNode.OperationList operation = opNode.thisEnum;
+        if (operation == OperationNode.OperationList.NOT) { return InterpreterDataType.Of(!Interpreter.IsTrue(left)); }
+        if (operation == OperationNode.OperationList.UNARYNEG) { return Arithmetic.Negate(left); }
+        if (operation == OperationNode.OperationList.UNARYPOS) { return Arithmetic.ToNumber(left); }
+        if (operation == OperationNode.OperationList.AND && !Interpreter.IsTrue(left)) { return InterpreterDataType.FALSE; }  // the right side is never looked at
+        if (operation == OperationNode.OperationList.OR && Interpreter.IsTrue(left)) { return InterpreterDataType.TRUE; }
+        if (opNode.right == null || opNode.right.isEmpty() || !(opNode.right.get() instanceof ConstantNode rightNode)) { return null; }
+        InterpreterDataType right = rightNode.getValue();
+        switch (operation) {
+            case EXPONENT: return Arithmetic.Power(left, right);
+            case ADD: return Arithmetic.Add(left, right);
+            case SUBTRACT: return Arithmetic.Subtract(left, right);
+            case MULTIPLY: return Arithmetic.Multiply(left, right);
+            case DIVIDE: return Arithmetic.Divide(left, right);
+            case MODULO: return Arithmetic.Modulo(left, right);
+            case EQ: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) == 0);
+            case NE: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) != 0);
+            case LT: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) < 0);
+            case LE: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) <= 0);
+            case GT: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) > 0);
+            case GE: return InterpreterDataType.Of(Interpreter.CompareValues(left, right) >= 0);
+            case CONCATENATION: return left.IsNumber() && !left.IsInteger() || right.IsNumber() && !right.IsInteger() ? null : ConcatenationDataType.Concatenate(left, right);  // CONVFMT can still change how other numbers are written
+            case AND:
+            case OR: return InterpreterDataType.Of(Interpreter.IsTrue(right));  // the left side already did not decide it
+            default: return null;
+        }
+    }
+}
@@ -5,14 +5,31 @@
  */
 public class ConstantNode extends Node {
     String stringValue;
+    InterpreterDataType value;  // made once so evaluating the constant does not allocate
+
     public ConstantNode(String inputString) {
         this.stringValue = inputString;
+        this.value = new InterpreterDataType(inputString);
+        value.getNum();     // filled in now so the shared value is never written to again
+        value.numeric = -1; // a string literal is a string even when it looks like a number, so x == "0" is false for an unset x
+    }
+
+    // a constant for a value that was already worked out, like a number literal or a folded expression
+    public ConstantNode(InterpreterDataType inputValue) {
+        this.stringValue = inputValue.getStr();
+        this.value = inputValue;
+        value.getNum();
+        value.IsNumeric();
     }
 
     String getStr() {
         return stringValue;
     }
 
+    InterpreterDataType getValue() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return "ConstantNode: " + stringValue + " ";
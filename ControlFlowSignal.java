@@ -0,0 +1,22 @@
+/*
+ * The ControlFlowSignal class which is thrown when next or exit runs inside a
+ * user defined function. A function call is an expression and can only give
+ * back a value, so the ReturnType is carried out to the rule that made the call
+ * and that rule acts on it. There is only one of each and they keep no stack
+ * trace, so throwing one costs about as much as returning.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class ControlFlowSignal extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    static final ControlFlowSignal NEXT = new ControlFlowSignal(ReturnType.NEXT);
+    static final ControlFlowSignal EXIT = new ControlFlowSignal(ReturnType.EXIT);
+
+    final ReturnType returnType;
+
+    private ControlFlowSignal(ReturnType returnType) {
+        super(returnType.toString(), null, false, false);
+        this.returnType = returnType;
+    }
+}
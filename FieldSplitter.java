@@ -0,0 +1,276 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * The FieldSplitter class which splits a record into fields one at a time.
+ * The field separator is compiled once into one of three modes and is only
+ * compiled again when a different separator is given:
+ *   - WHITESPACE for the default " ", where runs of blanks separate fields and
+ *     leading and trailing blanks are ignored
+ *   - SINGLE for any other single character (like "," "\t" or "|"), which is
+ *     matched literally with indexOf
+ *   - REGEX for everything else, which uses a cached Pattern
+ * Two more modes do not use a separator at all:
+ *   - FIXED cuts the record into columns given by FIELDWIDTHS
+ *   - CSV splits on commas following RFC 4180, so quoted fields can hold
+ *     commas and "" stands for a quote
+ *
+ * Each field is found as a start and end offset into the record, so the
+ * caller can keep the offsets and only make a String for the fields it uses.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class FieldSplitter {
+
+    enum SplitMode {
+        WHITESPACE, SINGLE, REGEX, FIXED, CSV
+    }
+
+    private String source;
+    private SplitMode mode;
+    private char separator;
+    private Matcher matcher;
+    private int[] skips;        // FIXED mode: characters skipped before each column
+    private int[] widths;       // FIXED mode: width of each column, -1 for the rest of the record
+    private int column;
+    private String record = "";
+    private int position;
+    private boolean done = true;
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean fieldEscaped;   // CSV mode: the current field has "" in it so it is not a plain view
+
+    public FieldSplitter() {
+        Compile(" ");
+    }
+
+    public FieldSplitter(String fs) {
+        Compile(fs);
+    }
+
+    /*
+     * This method is used to compile the field separator,
+     * it does nothing if the separator has not changed.
+     */
+    void Compile(String fs) {
+        if (mode != SplitMode.FIXED && mode != SplitMode.CSV && fs.equals(source)) { return; }
+        source = fs;
+        matcher = null;
+        if (fs.equals(" ")) {
+            mode = SplitMode.WHITESPACE;
+        } else if (fs.length() == 1) {
+            mode = SplitMode.SINGLE;
+            separator = fs.charAt(0);
+        } else if (fs.length() == 2 && fs.charAt(0) == '\\' && fs.charAt(1) == 't') { // an escaped tab
+            mode = SplitMode.SINGLE;
+            separator = '\t';
+        } else if (fs.length() == 2 && fs.charAt(0) == '\\' && !Character.isLetterOrDigit(fs.charAt(1))) { // an escaped symbol like \|
+            mode = SplitMode.SINGLE;
+            separator = fs.charAt(1);
+        } else {
+            mode = SplitMode.REGEX;
+            matcher = Pattern.compile(fs).matcher("");
+        }
+    }
+
+    /*
+     * This method is used to compile FIELDWIDTHS, a list of column widths
+     * seperated by spaces. A width can have "skip:" in front of it to skip
+     * characters before the column, and a last width of "*" takes the rest.
+     */
+    void CompileFieldWidths(String fieldWidths) {
+        if (mode == SplitMode.FIXED && fieldWidths.equals(source)) { return; }
+        String[] columns = fieldWidths.trim().split("[ \t]+");
+        int[] newSkips = new int[columns.length];
+        int[] newWidths = new int[columns.length];
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                String width = columns[i];
+                int colon = width.indexOf(':');
+                if (colon >= 0) {
+                    newSkips[i] = Integer.parseInt(width.substring(0, colon));
+                    width = width.substring(colon + 1);
+                }
+                if (width.equals("*") && i == columns.length - 1) {
+                    newWidths[i] = -1;
+                } else {
+                    newWidths[i] = Integer.parseInt(width);
+                }
+                if (newSkips[i] < 0 || newWidths[i] < -1) { throw new NumberFormatException(); }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid FIELDWIDTHS " + fieldWidths + ": FieldSplitter");
+        }
+        source = fieldWidths;
+        mode = SplitMode.FIXED;
+        matcher = null;
+        skips = newSkips;
+        widths = newWidths;
+    }
+
+    /*
+     * This method is used to switch to splitting records as CSV.
+     */
+    void CompileCsv() {
+        source = null;
+        mode = SplitMode.CSV;
+        matcher = null;
+    }
+
+    SplitMode getMode() {
+        return mode;
+    }
+
+    /*
+     * This method is used to start splitting a new record.
+     */
+    void Reset(String inputRecord) {
+        record = inputRecord;
+        position = 0;
+        column = 0;
+        done = inputRecord.isEmpty();
+        if (matcher != null) { matcher.reset(inputRecord); }
+    }
+
+    int getFieldStart() {
+        return fieldStart;
+    }
+
+    int getFieldEnd() {
+        return fieldEnd;
+    }
+
+    /*
+     * This method is used to tell if the current field is exactly the
+     * characters between its start and end offsets in the record.
+     *
+     * @return boolean
+     */
+    boolean IsView() {
+        return !fieldEscaped;
+    }
+
+    /*
+     * This method is used to make a String out of the current field.
+     *
+     * @return String
+     */
+    String Field() {
+        String field = record.substring(fieldStart, fieldEnd);
+        if (fieldEscaped) { return field.replace("\"\"", "\""); }
+        return field;
+    }
+
+    /*
+     * This method is used to return the next field of the
+     * record, or null once every field has been returned.
+     *
+     * @return String
+     */
+    String NextField() {
+        if (!Advance()) { return null; }
+        return Field();
+    }
+
+    /*
+     * This method is used to move to the next field of the record without
+     * making a String for it, it returns false once every field has been found.
+     *
+     * @return boolean
+     */
+    boolean Advance() {
+        if (done) { return false; }
+        int length = record.length();
+        fieldEscaped = false;
+        if (mode == SplitMode.WHITESPACE) {
+            while (position < length && IsBlank(record.charAt(position))) { position++; }
+            if (position >= length) {
+                done = true;
+                return false;
+            }
+            fieldStart = position;
+            while (position < length && !IsBlank(record.charAt(position))) { position++; }
+            fieldEnd = position;
+        } else if (mode == SplitMode.SINGLE) {
+            int next = record.indexOf(separator, position);
+            if (next < 0) { // no more separators so the rest of the record is the last field
+                done = true;
+                next = length;
+            }
+            fieldStart = position;
+            fieldEnd = next;
+            position = next + 1;
+        } else if (mode == SplitMode.REGEX) {
+            fieldStart = position;
+            while (matcher.find()) {
+                if (matcher.end() == 0) { continue; }  // a zero width match at the start does not make a field
+                fieldEnd = matcher.start();
+                position = matcher.end();
+                return true;
+            }
+            done = true;
+            fieldEnd = length;
+        } else if (mode == SplitMode.FIXED) {
+            if (column >= widths.length) {
+                done = true;
+                return false;
+            }
+            fieldStart = Math.min(position + skips[column], length);
+            fieldEnd = widths[column] < 0 ? length : Math.min(fieldStart + widths[column], length);
+            position = fieldEnd;
+            column++;
+            if (position >= length) { done = true; }  // the record ran out so later columns are missing
+        } else {
+            AdvanceCsv(length);
+        }
+        return true;
+    }
+
+    // finds the next CSV field, a quoted field is everything between the quotes with "" standing for a quote
+    private void AdvanceCsv(int length) {
+        if (position < length && record.charAt(position) == '"') {
+            fieldStart = position + 1;
+            int close = fieldStart;
+            while (true) {
+                close = record.indexOf('"', close);
+                if (close < 0) { // the quote is never closed so the field runs to the end of the record
+                    fieldEnd = length;
+                    position = length;
+                    break;
+                }
+                if (close + 1 < length && record.charAt(close + 1) == '"') { // a doubled quote inside the field
+                    fieldEscaped = true;
+                    close += 2;
+                    continue;
+                }
+                fieldEnd = close;
+                position = close + 1;
+                break;
+            }
+            int next = record.indexOf(',', position);  // anything between the closing quote and the comma is dropped
+            if (next < 0) {
+                done = true;
+            } else {
+                position = next + 1;
+            }
+        } else {
+            int next = record.indexOf(',', position);
+            if (next < 0) {
+                done = true;
+                next = length;
+            }
+            fieldStart = position;
+            fieldEnd = next;
+            position = next + 1;
+        }
+    }
+
+    private static boolean IsBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\n';
+    }
+
+    @Override
+    public String toString() {
+        return "FieldSplitter: " + mode + " " + source;
+    }
+}
@@ -8,18 +8,38 @@ import java.util.LinkedList;
 public class FunctionCallNode extends StatementNode {
     Token functionName;
     LinkedList<Node> parameters;
+    Token.TokenType redirectType;   // GREATERTHAN, APPEND or PIPE when print or printf output is redirected
+    Node redirectTarget;
 
     public FunctionCallNode(Token functionName, LinkedList<Node> parameters) {
         this.functionName = functionName;
         this.parameters = parameters;
     }
 
+    public FunctionCallNode(Token functionName, LinkedList<Node> parameters, Token.TokenType redirectType, Node redirectTarget) {
+        this.functionName = functionName;
+        this.parameters = parameters;
+        this.redirectType = redirectType;
+        this.redirectTarget = redirectTarget;
+    }
+
     String getName() {
         return functionName.getTokenValue();
     }
 
+    Token.TokenType getRedirectType() {
+        return redirectType;
+    }
+
+    Node getRedirectTarget() {
+        return redirectTarget;
+    }
+
     @Override
     public String toString() {
+        if (redirectTarget != null) {
+            return "FunctionCallNode: " + functionName + " " + parameters.toString() + " " + redirectType + " " + redirectTarget;
+        }
         return "FunctionCallNode: " + functionName + " " + parameters.toString();
     }
 }
@@ -9,6 +9,7 @@ public class FunctionDefinitionNode extends Node {
     private String functionName;
     private LinkedList<String> parameters;
     private LinkedList<StatementNode> statementNodes;
+    boolean[] arrayParameters;  // which parameters the function uses as arrays, set by the VariableResolver
 
     public FunctionDefinitionNode() {}
 
@@ -0,0 +1,38 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/*
+ * The HeapArrayStore class which implements an ArrayStore
+ * with a HashMap, which is what arrays use until they get big.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class HeapArrayStore implements ArrayStore {
+    private HashMap<String, InterpreterDataType> map = new HashMap<>();
+
+    public InterpreterDataType Get(String key) {
+        return map.get(key);
+    }
+
+    public void Put(String key, InterpreterDataType value) {
+        map.put(key, value);
+    }
+
+    public void Remove(String key) {
+        map.remove(key);
+    }
+
+    public int Size() {
+        return map.size();
+    }
+
+    public List<String> Keys() {
+        return new ArrayList<>(map.keySet());
+    }
+
+    @Override
+    public String toString() {
+        return "HeapArrayStore: " + map.size() + " keys";
+    }
+}
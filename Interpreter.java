@@ -1,11 +1,13 @@
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 /*
  * A Interpreter class which implements a Interpreter method
@@ -18,95 +20,276 @@ import java.util.regex.PatternSyntaxException;
  * @author Benjamin Babu (bbabu@albany.edu)
  */
 public class Interpreter {
+    static final long MAP_THRESHOLD = 1L << 30;   // inputs at least this big are memory mapped by default
+    static final int PARALLEL_CHUNK_SIZE = 8192;  // records handed out to the workers at a time in parallel mode
 
-    HashMap<String, InterpreterDataType> globalVariables = new HashMap<>();
+    HashMap<String, InterpreterDataType> globalVariables = new HashMap<>();   // the special variables, and every global when the VariableResolver did not run
+    InterpreterDataType[] globalSlots;                  // the globals the VariableResolver gave a slot, null until they are set
+    HashMap<String, Integer> globalSlotIndex = new HashMap<>();  // the slot of each of those globals by name
     HashMap<String, FunctionDefinitionNode> functionSource = new HashMap<>();
+    HashMap<String, UserFunction> userFunctions = new HashMap<>();  // the functions the program defines, each with its own frames
     LineManager lineManager;
     HashMap<String, InterpreterDataType> parameters = new HashMap<>();
+    FieldSplitter splitFunctionSplitter = new FieldSplitter();
+    OutputManager outputManager;
+    StringWriter workerOutput;
+    boolean parallel = false;   // set to run the main rules on several records at once when the program allows it
+    boolean csvInput = false;   // set to split records as CSV instead of with FS
+    boolean bytecode = false;   // set to run the rules as a generated class instead of as closures
+    int exitStatus = 0;         // what exit was given, the status the program ends with
+    InterpreterDataType returnValue = InterpreterDataType.EMPTY;  // what the last return gave, read by the call as soon as the function ends
+    final InterpreterDataType[] noLocals = new InterpreterDataType[0];  // the frame of code outside of functions, which has no slots
+    CompiledStatement[] compiledRules;  // the main rules compiled for a parallel worker, null until it runs its first records
 
+    /*
+     * Pulls records from the input one at a time through a RecordReader so the
+     * whole file never has to be held in memory. Only $0 is stored when a record
+     * is read, the fields are split off lazily up to the highest one asked for.
+     * A split field is only kept as its offsets into the record, the String for
+     * it is made the first time the field is read. The fields come from FS, or
+     * from FIELDWIDTHS when it is set, or from CSV when csvInput is set.
+     */
     public class LineManager {
-        List<String> strList;
-        private int NF = 0;
+        RecordReader reader;
+        private String record = "";
+        private String[] fields = new String[16];   // fields[i] holds $i once it has been read, index 0 is unused
+        private int[] fieldStarts = new int[16];    // where $i starts in the record while fields[i] is null
+        private int[] fieldEnds = new int[16];      // where $i ends in the record while fields[i] is null
+        private InterpreterDataType[] fieldValues = new InterpreterDataType[16];  // the value of $i once it has been read
+        private InterpreterDataType recordValue = InterpreterDataType.EMPTY;     // the value of $0
+        private int fieldCount = 0;                 // how many fields have been split off so far
+        private boolean fieldsDone = true;          // true once the whole record has been split
+        private FieldSplitter fieldSplitter = new FieldSplitter();
         private int NR = 0;
         private int FNR = 0;
 
-        public LineManager(List<String> inputStrList) {
-            this.strList = inputStrList;
+        public LineManager(RecordReader inputReader) {
+            this.reader = inputReader;
         }
 
         boolean SplitAndAssign() {
-            if (strList.isEmpty()) { return false; }    // there are no more lines from the file
-            String str = strList.remove(0);
-            FNR = 0;
-            globalVariables.put("$0", new InterpreterDataType(str));  // adds the whole line to $0
-            NF++;
-            String[] strSplit = str.split(globalVariables.get("FS").getStr());
-            for (int i = 1; i <= strSplit.length; i++) {    // adds each word in the line to $i
-                globalVariables.put("$"+NF, new InterpreterDataType(strSplit[i-1]));
-                NF++;
+            String str = NextRecord();
+            if (str == null) { return false; }
+            SetRecord(str);
+            return true;
+        }
+
+        // reads and counts the next record without making it the current one, returns null at the end of the input
+        String NextRecord() {
+            if (reader == null) { return null; }   // there is no input to read from
+            String str;
+            try {
+                reader.SetRecordSeparator(globalVariables.get("RS").getStr());  // RS can change between records
+                str = reader.ReadRecord();
+                if (str == null) {  // there are no more lines from the file
+                    reader.close();
+                    reader = null;
+                    return null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading input: Interpreter<LineManager>", e);
             }
             FNR++;
             NR++;
-            return true;
+            return str;
+        }
+
+        void SetRecordNumber(int recordNumber) {
+            NR = recordNumber;
+            FNR = recordNumber;
+        }
+
+        // stores the record as $0 and forgets the fields of the previous record
+        void SetRecord(String str) {
+            record = str;
+            recordValue = new InterpreterDataType(str);
+            globalVariables.put("$0", recordValue);  // adds the whole line to $0
+            InterpreterDataType fieldWidths = globalVariables.get("FIELDWIDTHS");
+            if (csvInput) {
+                fieldSplitter.CompileCsv();
+            } else if (fieldWidths != null && !fieldWidths.getStr().isBlank()) {
+                fieldSplitter.CompileFieldWidths(fieldWidths.getStr());
+            } else {
+                fieldSplitter.Compile(globalVariables.get("FS").getStr());  // only compiles the field separator again when it changed
+            }
+            fieldSplitter.Reset(str);
+            fieldCount = 0;
+            fieldsDone = false;
+        }
+
+        // returns $index, only splitting the record as far as needed to reach it
+        InterpreterDataType GetField(int index) throws Exception {
+            if (index < 0) { throw new Exception("Negative field index " + index + ": Interpreter<LineManager>"); }
+            if (index == 0) { return recordValue; }
+            SplitUpTo(index);
+            if (index > fieldCount) { return InterpreterDataType.EMPTY; }
+            if (fieldValues[index] == null) { fieldValues[index] = new InterpreterDataType(FieldString(index)); }
+            return fieldValues[index];
+        }
+
+        // makes the String for $index out of its offsets the first time it is needed
+        private String FieldString(int index) {
+            if (fields[index] == null) { fields[index] = record.substring(fieldStarts[index], fieldEnds[index]); }
+            return fields[index];
+        }
+
+        // sets $index and rebuilds $0 from the fields using OFS
+        void SetField(int index, String value) throws Exception {
+            if (index < 0) { throw new Exception("Negative field index " + index + ": Interpreter<LineManager>"); }
+            if (index == 0) {
+                SetRecord(value);
+                return;
+            }
+            GetNF();
+            for (int i = 1; i <= fieldCount; i++) { FieldString(i); }  // the offsets are no good once $0 is rebuilt
+            while (fieldCount < index) { AddField(""); }
+            fields[index] = value;
+            fieldValues[index] = null;
+            String ofs = globalVariables.get("OFS").getStr();
+            StringBuilder rebuilt = new StringBuilder(fields[1]);
+            for (int i = 2; i <= fieldCount; i++) {
+                rebuilt.append(ofs).append(fields[i]);
+            }
+            record = rebuilt.toString();
+            recordValue = new InterpreterDataType(record);
+            globalVariables.put("$0", recordValue);
+        }
+
+        // splits the whole record and returns the number of fields in it
+        int GetNF() {
+            SplitUpTo(Integer.MAX_VALUE);
+            return fieldCount;
+        }
+
+        int GetNR() {
+            return NR;
+        }
+
+        int GetFNR() {
+            return FNR;
+        }
+
+        private void SplitUpTo(int index) {
+            while (fieldCount < index && !fieldsDone) {
+                if (!fieldSplitter.Advance()) {
+                    fieldsDone = true;
+                } else if (fieldSplitter.IsView()) {
+                    AddField(null);
+                    fieldStarts[fieldCount] = fieldSplitter.getFieldStart();
+                    fieldEnds[fieldCount] = fieldSplitter.getFieldEnd();
+                } else {
+                    AddField(fieldSplitter.Field());
+                }
+            }
+        }
+
+        private void AddField(String field) {
+            fieldCount++;
+            if (fieldCount >= fields.length) {
+                fields = Arrays.copyOf(fields, fields.length * 2);
+                fieldStarts = Arrays.copyOf(fieldStarts, fields.length);
+                fieldEnds = Arrays.copyOf(fieldEnds, fields.length);
+                fieldValues = Arrays.copyOf(fieldValues, fields.length);
+            }
+            fields[fieldCount] = field;
+            fieldValues[fieldCount] = null;
         }
 
         @Override
         public String toString() {
-            String returnStr = "";
-            for (String s : strList) {
-                returnStr += s;
-            }
-            return returnStr;
+            return "LineManager: NR " + NR + ", FNR " + FNR;
         }
     }
 
     public Interpreter(Parser.ProgramNode pNode, Path filePath) throws IOException {
+        this(pNode, filePath, filePath != null && Files.exists(filePath) && Files.size(filePath) >= MAP_THRESHOLD);
+    }
+
+    public Interpreter(Parser.ProgramNode pNode, Path filePath, boolean mapInput) throws IOException {
         if (filePath == null) { // file path provided is null
-            lineManager = new LineManager(new LinkedList<>());
+            lineManager = new LineManager(null);
         }
-        else if (Files.exists(filePath)) { // file path exists
-            List<String> fileLines = Files.readAllLines(filePath);
-            lineManager = new LineManager(fileLines);
+        else if (Files.exists(filePath)) { // file path exists so records are streamed or mapped from it
+            if (mapInput) {
+                lineManager = new LineManager(new MappedRecordReader(filePath));
+            } else {
+                lineManager = new LineManager(new BufferedRecordReader(filePath));
+            }
             globalVariables.put("FILENAME", new InterpreterDataType(filePath.toString()));
         } else { // file path does not exist
-            lineManager = new LineManager(new LinkedList<>());
+            lineManager = new LineManager(null);
+        }
+        globalSlots = new InterpreterDataType[pNode.getGlobalNames().size()];
+        for (String name : pNode.getGlobalNames()) {
+            globalSlotIndex.put(name, globalSlotIndex.size());
         }
         globalVariables.put("FS", new InterpreterDataType(" ")); // field seperator is set as a space
-        globalVariables.put("OFMT", new InterpreterDataType("%.6g"));
+        globalVariables.put("CONVFMT", new InterpreterDataType(NumberFormatter.DEFAULT_FORMAT));
+        globalVariables.put("OFMT", new InterpreterDataType(NumberFormatter.DEFAULT_FORMAT));
+        NumberFormatter.Reset();    // the formatters are shared by the JVM, so only one program may run at a time
         globalVariables.put("OFS", new InterpreterDataType(" "));
         globalVariables.put("ORS", new InterpreterDataType("\n"));
+        globalVariables.put("RS", new InterpreterDataType("\n"));
+        outputManager = new OutputManager();
+        for (FunctionDefinitionNode function : pNode.getFunctionNodes()) {
+            if (!(function instanceof BuiltInFunctionDefinitionNode)) { userFunctions.put(function.getFunctionName(), new UserFunction(function)); }
+        }
+        RegisterBuiltIns();
+        for (FunctionDefinitionNode builtIn : functionSource.values()) {
+            pNode.addFunctionNode(builtIn);
+        }
+    }
+
+    // creates a worker for parallel record processing, it starts from the parent's variables but has its own record and output buffer
+    Interpreter(Interpreter parent) {
+        globalVariables = new HashMap<>(parent.globalVariables);
+        globalSlots = parent.globalSlots.clone();
+        globalSlotIndex = parent.globalSlotIndex;
+        csvInput = parent.csvInput;
+        bytecode = parent.bytecode;
+        lineManager = new LineManager(null);
+        workerOutput = new StringWriter();
+        outputManager = new OutputManager(workerOutput);
+        for (UserFunction function : parent.userFunctions.values()) { // a worker calls its functions in frames of its own
+            userFunctions.put(function.definition.getFunctionName(), new UserFunction(function.definition));
+        }
+        RegisterBuiltIns();
+    }
 
+    void RegisterBuiltIns() {
         // handles the print builtin function
         Function<HashMap<String, InterpreterDataType>, String> PrintFunction = ((parameters) -> {
             String returnStr = "";
             InterpreterArrayDataType iadt = (InterpreterArrayDataType) parameters.get("0"); // since print is a variadic the parameter is an iadt
-            for (int i = 0; i < iadt.iadt.size(); i++) { // looping through iadt to get the parameters
-                returnStr += iadt.iadt.get(String.valueOf(i)).getStr() + globalVariables.get("FS").getStr();
+            for (int i = 0; i < iadt.Size(); i++) { // looping through iadt to get the parameters
+                returnStr += iadt.Get(i).getOutputStr() + globalVariables.get("FS").getStr();
+            }
+            if (iadt.Size() == 0) { // print with no parameters prints the whole record
+                returnStr = globalVariables.getOrDefault("$0", new InterpreterDataType()).getStr();
             }
-            System.out.println(returnStr);
+            Output(parameters, returnStr + globalVariables.get("ORS").getStr());
             return returnStr;
         });
         BuiltInFunctionDefinitionNode printFunction = new BuiltInFunctionDefinitionNode(PrintFunction, true);
         functionSource.put("print", printFunction);
-        pNode.addFunctionNode(printFunction);
 
         // handles the printf builtin function
         Function<HashMap<String, InterpreterDataType>, String> PrintfFunction = ((parameters) -> {
             InterpreterArrayDataType iadt = (InterpreterArrayDataType) parameters.get("0");  // since printf is a variadic the parameter is an iadt
-            String[] argStr = new String[iadt.iadt.size()];
-            for (int i = 1; i < iadt.iadt.size(); i++) { // populates the list of strings
-                argStr[i-1] = iadt.iadt.get(String.valueOf(i)).getStr() + globalVariables.get("FS").getStr();
+            String[] argStr = new String[iadt.Size()];
+            for (int i = 1; i < iadt.Size(); i++) { // populates the list of strings
+                argStr[i-1] = iadt.Get(i).getStr() + globalVariables.get("FS").getStr();
             }
-            String returnStr = String.format(iadt.iadt.get("0").getStr(), argStr); // builds the return string
-            System.out.println(returnStr);
+            String returnStr = String.format(iadt.Get(0).getStr(), argStr); // builds the return string
+            Output(parameters, returnStr + globalVariables.get("ORS").getStr());
             return returnStr;
         });
         BuiltInFunctionDefinitionNode printfFunction = new BuiltInFunctionDefinitionNode(PrintfFunction, true);
         functionSource.put("printf", printfFunction);
-        pNode.addFunctionNode(printfFunction);
 
         // handles the getline builtin function
         Function<HashMap<String, InterpreterDataType>, String> GetlineFunction = ((parameters) -> {
+            outputManager.Flush(); // anything printed so far is written out before reading more input
             boolean check = lineManager.SplitAndAssign(); // gets the return of SplitAndAssign
             if (!check) { // was not able to split and assign
                 return "1";
@@ -115,17 +298,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode getlineFunction = new BuiltInFunctionDefinitionNode(GetlineFunction, false);
         functionSource.put("getline", getlineFunction);
-        pNode.addFunctionNode(getlineFunction);
-
-        // handles the next builtin function
-        Function<HashMap<String, InterpreterDataType>, String> NextFunction = ((parameters) -> {
-            boolean check = lineManager.SplitAndAssign(); // gets the return of SplitAndAssign
-            if (!check) { return "1"; } // was not able to split and assign
-            return "0"; // was able to split and assign
-        });
-        BuiltInFunctionDefinitionNode nextFunction = new BuiltInFunctionDefinitionNode(NextFunction, false);
-        functionSource.put("next", nextFunction);
-        pNode.addFunctionNode(nextFunction);
 
         // handles the gsub builtin function
         Function<HashMap<String, InterpreterDataType>, String> GsubFunction = ((parameters) -> {
@@ -142,7 +314,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode gsubFunction = new BuiltInFunctionDefinitionNode(GsubFunction, false);
         functionSource.put("gsub", gsubFunction);
-        pNode.addFunctionNode(gsubFunction);
 
         // handles the match builtin function
         Function<HashMap<String, InterpreterDataType>, String> MatchFunction = ((parameters) -> {
@@ -152,7 +323,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode matchFunction = new BuiltInFunctionDefinitionNode(MatchFunction, false);
         functionSource.put("match", matchFunction);
-        pNode.addFunctionNode(matchFunction);
 
         // handles the sub builtin function
         Function<HashMap<String, InterpreterDataType>, String> SubFunction = ((parameters) -> {
@@ -163,7 +333,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode subFunction = new BuiltInFunctionDefinitionNode(SubFunction, false);
         functionSource.put("sub", subFunction);
-        pNode.addFunctionNode(subFunction);
 
         // handles the index builtin function
         Function<HashMap<String, InterpreterDataType>, String> IndexFunction = ((parameters) -> {
@@ -173,13 +342,16 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode indexFunction = new BuiltInFunctionDefinitionNode(IndexFunction, false);
         functionSource.put("index", indexFunction);
-        pNode.addFunctionNode(indexFunction);
 
         // handles the length builtin function
         Function<HashMap<String, InterpreterDataType>, String> LengthFunction = ((parameters) -> {
             String target;
             if (parameters.isEmpty()) {
                 target = globalVariables.get("$0").getStr(); // gets the target string from global variables
+            } else if (parameters.get("0") instanceof InterpreterArrayDataType array) { // the length of an array is how many elements it has
+                return String.valueOf(array.Size());
+            } else if (parameters.get("0") instanceof ConcatenationDataType concatenation) { // a long concatenation knows its length without making its string
+                return String.valueOf(concatenation.Length());
             } else {
                 target = parameters.get("0").getStr(); // gets the target string from parameters
             }
@@ -187,7 +359,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode lengthFunction = new BuiltInFunctionDefinitionNode(LengthFunction, false);
         functionSource.put("length", lengthFunction);
-        pNode.addFunctionNode(lengthFunction);
 
         // handles the split builtin function
         Function<HashMap<String, InterpreterDataType>, String> SplitFunction = ((parameters) -> {
@@ -199,34 +370,39 @@ public class Interpreter {
                 fs = parameters.get("2").getStr();
                 sep = (InterpreterArrayDataType) parameters.get("3");
             }
-            String[] splitArr = target.split(fs);
-            for (int i = 0; i < splitArr.length; i++) {
-                arr.iadt.put(String.valueOf(i), new InterpreterDataType(splitArr[i]));
+            splitFunctionSplitter.Compile(fs);
+            splitFunctionSplitter.Reset(target);
+            arr.Clear(); // split replaces whatever was in the array
+            if (sep != null) { sep.Clear(); }
+            int count = 0;
+            String field = splitFunctionSplitter.NextField();
+            while (field != null) {
+                count++;    // the pieces are numbered from 1 like fields
+                arr.Put(count, new InterpreterDataType(field));
+                field = splitFunctionSplitter.NextField();
             }
             if (sep != null) {
-                for (int j = 0; j < splitArr.length-1; j++) {
-                    sep.iadt.put(String.valueOf(j), new InterpreterDataType(fs));
+                for (int j = 1; j < count; j++) {
+                    sep.Put(j, new InterpreterDataType(fs));
                 }
             }
-            return String.valueOf(splitArr.length);
+            return String.valueOf(count);
         });
         BuiltInFunctionDefinitionNode splitFunction = new BuiltInFunctionDefinitionNode(SplitFunction, false);
         functionSource.put("split", splitFunction);
-        pNode.addFunctionNode(splitFunction);
 
         // handles the substr builtin function
         Function<HashMap<String, InterpreterDataType>, String> SubstrFunction = ((parameters) -> {
             String target = parameters.get("0").getStr(); // gets the target string
-            int startIndex = Integer.parseInt(parameters.get("1").getStr()); // gets the start index
+            int startIndex = (int) parameters.get("1").getNum(); // gets the start index
             int endIndex = target.length()+1; // gets the default end index to the length of the string
             if (parameters.size() > 2) { // if a second parameters was given it is used as the end index
-                endIndex = Integer.parseInt(parameters.get("2").getStr());
+                endIndex = (int) parameters.get("2").getNum();
             }
             return target.substring(startIndex-1, endIndex-1);
         });
         BuiltInFunctionDefinitionNode substrFunction = new BuiltInFunctionDefinitionNode(SubstrFunction, false);
         functionSource.put("substr", substrFunction);
-        pNode.addFunctionNode(substrFunction);
 
         // handles the tolower builtin function
         Function<HashMap<String, InterpreterDataType>, String> TolowerFunction = ((parameters) -> {
@@ -235,7 +411,6 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode tolowerFunction = new BuiltInFunctionDefinitionNode(TolowerFunction, false);
         functionSource.put("tolower", tolowerFunction);
-        pNode.addFunctionNode(tolowerFunction);
 
         // handles the toupper builtin function
         Function<HashMap<String, InterpreterDataType>, String> ToupperFunction = ((parameters) -> {
@@ -244,585 +419,378 @@ public class Interpreter {
         });
         BuiltInFunctionDefinitionNode toUpperFunction = new BuiltInFunctionDefinitionNode(ToupperFunction, false);
         functionSource.put("toupper", toUpperFunction);
-        pNode.addFunctionNode(toUpperFunction);
+
+        // handles the fflush builtin function
+        Function<HashMap<String, InterpreterDataType>, String> FflushFunction = ((parameters) -> {
+            outputManager.Flush();
+            return "0";
+        });
+        BuiltInFunctionDefinitionNode fflushFunction = new BuiltInFunctionDefinitionNode(FflushFunction, false);
+        functionSource.put("fflush", fflushFunction);
+
+        // handles the close builtin function
+        Function<HashMap<String, InterpreterDataType>, String> CloseFunction = ((parameters) -> {
+            return String.valueOf(outputManager.Close(parameters.get("0").getStr())); // gets the file or command to close
+        });
+        BuiltInFunctionDefinitionNode closeFunction = new BuiltInFunctionDefinitionNode(CloseFunction, false);
+        functionSource.put("close", closeFunction);
     }
 
     void InterpretProgram(Parser.ProgramNode programNode) throws Exception {
-        // run begin blocks
-        for (BlockNode beginBlock : programNode.getBeginBlockNodes()) { // loops through the begin block nodes and "executes" them
-            InterpretBlock(beginBlock); 
-        }
-        // run other blocks
-        while (lineManager.SplitAndAssign()) {
-            for (BlockNode otherBlock: programNode.getOtherBlockNodes()) {  // loops through the other block nodes and "executes" them
-                InterpretBlock(otherBlock);
+        try {
+            // the rules are compiled together once before anything runs
+            int beginCount = programNode.getBeginBlockNodes().size();
+            int otherCount = programNode.getOtherBlockNodes().size();
+            List<BlockNode> blocks = new ArrayList<>(programNode.getBeginBlockNodes());
+            blocks.addAll(programNode.getOtherBlockNodes());
+            blocks.addAll(programNode.getEndBlockNodes());
+            CompiledStatement[] rules = CompileRules(blocks);
+            CompiledStatement[] beginRules = Arrays.copyOfRange(rules, 0, beginCount);
+            CompiledStatement[] otherRules = Arrays.copyOfRange(rules, beginCount, beginCount + otherCount);
+            CompiledStatement[] endRules = Arrays.copyOfRange(rules, beginCount + otherCount, rules.length);
+            // run begin blocks, an exit in them skips the input but the end blocks still run
+            boolean exited = RunRules(beginRules) == ReturnType.EXIT;
+            // run other blocks
+            HashMap<String, ParallelAnalyzer.AggregateKind> aggregates = parallel && !exited ? ParallelAnalyzer.FindAggregates(programNode) : null;
+            if (aggregates != null) {
+                InterpretRecordsInParallel(programNode, aggregates);
+            } else if (!exited) {   // the input is not read after an exit
+                while (lineManager.SplitAndAssign()) {
+                    if (RunRules(otherRules) == ReturnType.EXIT) { break; }
+                }
             }
-        }
-        // run end blocks
-        for (BlockNode endBlock : programNode.getEndBlockNodes()) { // loops through the end block nodes and "executes" them
-            InterpretBlock(endBlock);
+            // run end blocks
+            RunRules(endRules);
+        } finally {
+            outputManager.CloseAll(); // whatever is still buffered is written out and redirections are closed when the program exits
         }
     }
 
-    void InterpretBlock(BlockNode blockNode) throws Exception {
-        HashMap<String, InterpreterDataType> locals = new HashMap<>();
-        if (blockNode.getCondition() == null || blockNode.getCondition().isEmpty()) { // block node does not have a condition
-            for (StatementNode statement : blockNode.getStatement()) {
-                ProcessStatement(locals, statement);
+    /*
+     * Runs the main rules over the input a chunk of records at a time. Each chunk is cut into
+     * one slice per worker, the slices are run on a ForkJoinPool, and the output of the slices
+     * is written in the original record order. The next chunk is read while a chunk is running.
+     * Every worker updates its own copy of the aggregated arrays (SUM arrays start out empty so
+     * they only hold what the worker added), and the copies are merged before the END blocks run.
+     */
+    void InterpretRecordsInParallel(Parser.ProgramNode programNode, HashMap<String, ParallelAnalyzer.AggregateKind> aggregates) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Interpreter[] workers = new Interpreter[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Interpreter(this);
+            for (Map.Entry<String, ParallelAnalyzer.AggregateKind> aggregate : aggregates.entrySet()) { // gives the worker its own copy of each aggregated array
+                InterpreterArrayDataType copy = new InterpreterArrayDataType();
+                if (aggregate.getValue() != ParallelAnalyzer.AggregateKind.SUM) {
+                    copy.PutAll(GetArray(aggregate.getKey()));
+                }
+                workers[i].PutGlobal(aggregate.getKey(), copy);
             }
-        } else { // block node has a condition so only call process statements if that condition is true
-            InterpreterDataType condition = GetIDT(blockNode.getCondition().get(), locals);
-            if (condition.getStr() == "true") {
-                for (StatementNode statement : blockNode.getStatement()) {
-                    ProcessStatement(locals, statement);
+        }
+        try {
+            int firstRecordNumber = lineManager.GetNR() + 1;
+            ArrayList<String> chunk = ReadChunk();
+            String lastRecord = null;
+            while (!chunk.isEmpty()) {
+                ArrayList<Future<String>> results = new ArrayList<>();
+                int sliceSize = (chunk.size() + threads - 1) / threads;
+                for (int i = 0; i < threads && i * sliceSize < chunk.size(); i++) { // hands each worker its slice of the chunk
+                    Interpreter worker = workers[i];
+                    List<String> records = chunk;
+                    int from = i * sliceSize;
+                    int to = Math.min(chunk.size(), from + sliceSize);
+                    int recordNumber = firstRecordNumber + from;
+                    results.add(pool.submit(() -> worker.InterpretRecords(programNode.getOtherBlockNodes(), records, from, to, recordNumber)));
+                }
+                lastRecord = chunk.get(chunk.size() - 1);
+                firstRecordNumber = lineManager.GetNR() + 1;
+                ArrayList<String> nextChunk = ReadChunk();
+                for (Future<String> result : results) { // writes the output of each slice in order
+                    try {
+                        outputManager.Print(result.get());
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) { throw (Exception) e.getCause(); }
+                        throw e;
+                    }
+                }
+                chunk = nextChunk;
+            }
+            if (lastRecord != null) { lineManager.SetRecord(lastRecord); }  // END blocks see the last record like they would normally
+            for (Map.Entry<String, ParallelAnalyzer.AggregateKind> aggregate : aggregates.entrySet()) {
+                InterpreterArrayDataType result = GetArray(aggregate.getKey());
+                for (Interpreter worker : workers) {
+                    MergeAggregate(result, (InterpreterArrayDataType) worker.GetGlobal(aggregate.getKey()), aggregate.getValue());
                 }
             }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // merges the copy of an aggregated array that a worker updated into the result
+    void MergeAggregate(InterpreterArrayDataType result, InterpreterArrayDataType partial, ParallelAnalyzer.AggregateKind kind) {
+        for (InterpreterDataType key : partial.Keys()) {
+            InterpreterDataType value = partial.Get(key);
+            InterpreterDataType current = result.Get(key);
+            if (kind == ParallelAnalyzer.AggregateKind.SUM) {
+                result.Put(key, current == null ? Arithmetic.ToNumber(value) : Arithmetic.Add(current, value));
+            } else if (current == null || (kind == ParallelAnalyzer.AggregateKind.MAX ? CompareValues(value, current) > 0 : CompareValues(value, current) < 0)) {
+                result.Put(key, value);
+            }
+        }
+    }
+
+    // reads up to PARALLEL_CHUNK_SIZE records from the input
+    ArrayList<String> ReadChunk() {
+        ArrayList<String> chunk = new ArrayList<>(PARALLEL_CHUNK_SIZE);
+        String record;
+        while (chunk.size() < PARALLEL_CHUNK_SIZE && (record = lineManager.NextRecord()) != null) {
+            chunk.add(record);
+        }
+        return chunk;
+    }
+
+    // runs the main rules of a worker over records[from, to) and returns what they printed
+    String InterpretRecords(List<BlockNode> blocks, List<String> records, int from, int to, int firstRecordNumber) throws Exception {
+        if (compiledRules == null) { compiledRules = CompileRules(blocks); }   // a worker's closures are bound to the worker
+        for (int i = from; i < to; i++) {
+            lineManager.SetRecordNumber(firstRecordNumber + i - from);
+            lineManager.SetRecord(records.get(i));
+            RunRules(compiledRules);
+        }
+        outputManager.Flush();
+        String output = workerOutput.toString();
+        workerOutput.getBuffer().setLength(0);
+        return output;
+    }
+
+    // writes the output of print or printf to standard output or to where it was redirected
+    void Output(HashMap<String, InterpreterDataType> parameters, String str) {
+        if (parameters.containsKey("redirect")) {
+            outputManager.Print(str, parameters.get("redirect").getStr(), parameters.get("target").getStr());
+        } else {
+            outputManager.Print(str);
+        }
+    }
+
+    // compiles rules into a generated class when that is asked for and works, and into closures otherwise
+    CompiledStatement[] CompileRules(List<BlockNode> blocks) throws Exception {
+        CompiledStatement[] rules = bytecode && !blocks.isEmpty() ? BytecodeCompiler.Compile(this, blocks) : null;
+        return rules != null ? rules : new ClosureCompiler(this).CompileRules(blocks);
+    }
+
+    /*
+     * Runs compiled rules one after another, rule blocks have no parameters so their frame
+     * has no slots. A next skips the rest of the rules and an exit is returned so the caller
+     * stops too, whether they ran in the rule or in a function it called.
+     */
+    ReturnType RunRules(CompiledStatement[] rules) throws Exception {
+        for (CompiledStatement rule : rules) {
+            ReturnType result;
+            try {
+                result = rule.Execute(noLocals);
+            } catch (ControlFlowSignal signal) {
+                result = signal.returnType;
+            }
+            if (result == ReturnType.NEXT) { break; }
+            if (result == ReturnType.EXIT) { return result; }
         }
+        return ReturnType.NORMAL;
     }
 
-    String RunFunctionCall(FunctionCallNode functionCallNode, HashMap<String, InterpreterDataType> localVariables) throws Exception {
-        String functionName;
-        // gets the name which should be used to search for the function call in the hashmap
+    // calls a user defined function with arguments that were compiled, they are worked out in the caller's frame straight into the new one
+    InterpreterDataType CallFunction(UserFunction function, CompiledExpression[] arguments, InterpreterDataType[] locals) throws Exception {
+        InterpreterDataType[] frame = function.PushFrame();
+        try {
+            for (int j = 0; j < arguments.length; j++) {
+                frame[j] = arguments[j].Evaluate(locals);
+            }
+            return RunFunction(function, frame);
+        } finally {
+            function.PopFrame();
+        }
+    }
+
+    /*
+     * Runs the body of a user defined function in a frame that holds its arguments and
+     * returns what it returned, or an empty value when it ends without a return. A next
+     * or exit inside it is thrown out to the rule that called it.
+     */
+    InterpreterDataType RunFunction(UserFunction function, InterpreterDataType[] frame) throws Exception {
+        if (function.body == null) { function.body = new ClosureCompiler(this).CompileFunction(function.definition); }
+        ReturnType result = function.body.Execute(frame);
+        if (result == ReturnType.RETURN) {
+            InterpreterDataType value = returnValue;
+            returnValue = InterpreterDataType.EMPTY;
+            return value;
+        } else if (result == ReturnType.NEXT) {
+            throw ControlFlowSignal.NEXT;
+        } else if (result == ReturnType.EXIT) {
+            throw ControlFlowSignal.EXIT;
+        }
+        return InterpreterDataType.EMPTY;
+    }
+
+    // a function can not be given more arguments than it has parameters, since they would have no slot in its frame
+    static void CheckArguments(UserFunction function, FunctionCallNode functionCallNode) throws Exception {
+        if (functionCallNode.parameters.size() > function.frameSize) {
+            throw new Exception("Too many arguments to " + function.definition.getFunctionName() + ": Interpreter<CheckArguments>");
+        }
+    }
+
+    // only a plain variable can be passed to an array parameter by reference
+    static boolean IsArrayArgument(Node parameter) {
+        return parameter instanceof VariableReferenceNode vNode && (vNode.expression == null || vNode.expression.isEmpty());
+    }
+
+    // gets the name which should be used to search for the function call in the hashmap
+    static String FunctionName(FunctionCallNode functionCallNode) {
         if (functionCallNode.getName() != null) {
-            functionName = functionCallNode.getName();
+            return functionCallNode.getName();
         } else if (functionCallNode.functionName.getTokenType() == Token.TokenType.PRINT) {
-            functionName = "print";
+            return "print";
         } else if (functionCallNode.functionName.getTokenType() == Token.TokenType.PRINTF) {
-            functionName = "printf";
+            return "printf";
         } else if (functionCallNode.functionName.getTokenType() == Token.TokenType.GETLINE) {
-            functionName = "getline";
+            return "getline";
         } else if (functionCallNode.functionName.getTokenType() == Token.TokenType.NEXT) {
-            functionName = "next";
+            return "next";
         } else if (functionCallNode.functionName.getTokenType() == Token.TokenType.MATCH) {
-            functionName = "match";
-        } else {
-            functionName = functionCallNode.getName();
-        }
-
-        // for print
-        if (functionSource.containsKey(functionName)) {
-            FunctionDefinitionNode func = functionSource.get(functionName);
-            if (func instanceof BuiltInFunctionDefinitionNode) { // function is a builtin function
-                if (((BuiltInFunctionDefinitionNode) func).variadic) { // function is a variadic so the hashmap is <String, IADT>
-                    HashMap<String, InterpreterDataType> map = new HashMap<>();
-                    InterpreterArrayDataType iadt = new InterpreterArrayDataType();
-                    for (int j = 0; j < functionCallNode.parameters.size(); j++) { // populates the hashmap contained within the iadt object
-                        InterpreterDataType ii = GetIDT(functionCallNode.parameters.get(j), localVariables);
-                        iadt.iadt.put(Integer.toString(j), ii);
-                    }
-                    map.put("0", iadt); // sets the iadt in the map hashmap
-                    return ((BuiltInFunctionDefinitionNode) func).Execute(map);
-                } else { // function is not a variadic so the hashmap is just <String, IDT>
-                    HashMap<String, InterpreterDataType> map = new HashMap<>();
-                    for (int j = 0; j < functionCallNode.parameters.size(); j++) { // populates the map hashmap
-                        map.put(Integer.toString(j), GetIDT(functionCallNode.parameters.get(j), localVariables));
-                    }
-                    return ((BuiltInFunctionDefinitionNode) func).Execute(map);
-                }
-            } else { // not a builtin function (user defined function)
-                HashMap<String, InterpreterDataType> map = new HashMap<>();
-                for (int j = 0; j < functionCallNode.parameters.size(); j++) { // populates the map hashmap
-                    map.put(Integer.toString(j), GetIDT(functionCallNode.parameters.get(j), localVariables));
-                }
-                InterpretListOfStatements(func.getStatementNodes(), map);
-            }
+            return "match";
         }
-        return "";
+        return functionCallNode.getName();
     }
 
-    ReturnType ProcessStatement(HashMap<String, InterpreterDataType> locals, StatementNode stmt) throws Exception {
-        if (stmt instanceof BreakNode) { // checks if statement node is a BreakNode
-            return new ReturnType(ReturnType.ReturnEnums.Break);
-        } else if (stmt instanceof ContinueNode) { // checks if statement node is a ContinueNode
-            return new ReturnType(ReturnType.ReturnEnums.Continue);
-        } else if (stmt instanceof DeleteNode) { // checks if statement node is a DeleteNode
-            DeleteNode deleteNode = (DeleteNode) stmt;
-            if (deleteNode.getCondition() instanceof VariableReferenceNode) { // checks if the condition is a  VariableReferenceNode
-                VariableReferenceNode vNode = (VariableReferenceNode) deleteNode.getCondition(); // type casts the delete node to a VariableReferenceNode
-                if (locals.containsKey(vNode.getName())) { // local contains the array
-                    InterpreterArrayDataType arr = (InterpreterArrayDataType) locals.get(vNode.getName()); // gets the array from locals
-                    if (vNode.getExpression() == null || vNode.getExpression().isEmpty()) { // indices not set so delete it all
-                        locals.remove(vNode.getName()); // removes the array from locals
-                    } else { // indices are set so only delete that
-                        arr.getIADT().remove(GetIDT(vNode.expression.get(), locals).getStr()); // calls GetIDT on the expression and removes it from the array hashmap which is stored in locals
-                    }
-                } else if (globalVariables.containsKey(vNode.getName())) { // globals contains the array
-                    InterpreterArrayDataType arr = (InterpreterArrayDataType) globalVariables.get(vNode.getName());
-                    if (vNode.getExpression() == null || vNode.getExpression().isEmpty()) { // indices not set so delete it all
-                        globalVariables.remove(vNode.getName()); // removes the array from global
-                    } else { // indices are set so only delete
-                        arr.getIADT().remove(GetIDT(vNode.expression.get(), locals).getStr()); // calls GetIDT on the expression and removes it from the array hashmap which is stored in locals
-                    }
-                }
-                return new ReturnType(ReturnType.ReturnEnums.Normal, "true");
-            } else {
-                throw new Exception("Incorrect delete condition: Interpreter<ProcessStatement(DeleteNode)>");
-            }
-        } else if (stmt instanceof DoWhileNode) { // checks if statement node is a DoWhileNode
-            DoWhileNode doWhileNode = (DoWhileNode) stmt;
-            InterpreterDataType condition = GetIDT(doWhileNode.getCondition(), locals);
-            do {
-                ReturnType interStmt = InterpretListOfStatements(doWhileNode.getBlockNode().getStatement(), locals); // calls interpret list of statements on the block node for DoWhileNode
-                if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Break) { // checks if the return enum is break and returns break
-                    return new ReturnType(ReturnType.ReturnEnums.Break);
-                } else if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Return) { // checks if the return enum is return and returns the result
-                    return interStmt;
-                }
-                condition = GetIDT(doWhileNode.getCondition(), locals);
-            } while (condition.getStr() == "true");
-        } else if (stmt instanceof ForNode) { // checks if statement node is a ForNode
-            ForNode forNode = (ForNode) stmt;
-            if (forNode.getCondition1() != null) {
-                GetIDT(forNode.getCondition1(), locals); // calls GetIDT on the first condition of the for loop
-            }
-            InterpreterDataType condition = GetIDT(forNode.condition2, locals);  // calls GetIDT on the second condition of the for loop
-            while (condition.getStr() == "true") {
-                ReturnType interStmt = InterpretListOfStatements(forNode.getBlockNode().getStatement(), locals);
-                if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Break) { // checks if the return enum is break and returns break
-                    break;
-                } else if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Return) { // checks if the return enum is return and returns the result
-                    return interStmt;
-                }
-                GetIDT(forNode.getCondition3(), locals); // calls GetIDT on the third condition of the for loop
-                condition = GetIDT(forNode.condition2, locals); // evaluates the condition again to check if it is true
-            }
-        } else if (stmt instanceof ForEachNode) { // checks if statement node is a ForEachNode
-            ForEachNode forEachNode = (ForEachNode) stmt;
-            if (forEachNode.getCondition1() instanceof OperationNode) { // checks if condition 1 is an operation node
-                OperationNode forEachOpNode = (OperationNode) forEachNode.getCondition1();
-                if (forEachOpNode.getLeft() instanceof VariableReferenceNode && forEachOpNode.getRight().isPresent()) { // checks if the left side is a variable reference node
-                    VariableReferenceNode opNodeLeft = (VariableReferenceNode) forEachOpNode.getLeft();
-                    if (forEachOpNode.getRight().get() instanceof VariableReferenceNode) { // checks if the right side is a variable reference node
-                        VariableReferenceNode opNodeRight = (VariableReferenceNode) forEachOpNode.getRight().get();
-                        InterpreterArrayDataType arr = (InterpreterArrayDataType) locals.get(opNodeRight.getName()); // gets the hashmap from locals
-                        for (String currKey : arr.getIADT().keySet()) {
-                            locals.put(opNodeLeft.getName(), new InterpreterDataType(currKey)); // sets the variable in locals to the variable name in the hashmap
-                            ReturnType interStmt = InterpretListOfStatements(forEachNode.getBlockNode().getStatement(), locals);
-                            if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Break) { // checks if the return enum is break and returns break
-                                return new ReturnType(ReturnType.ReturnEnums.Break);
-                            } else if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Return) { // checks if the return enum is return and returns the result
-                                return interStmt;
-                            }
-                        }
-                    }
-                }
+    // turns the redirection token of a print or printf into the symbol the OutputManager uses
+    String RedirectSymbol(Token.TokenType redirectType) throws Exception {
+        if (redirectType == Token.TokenType.GREATERTHAN) {
+            return ">";
+        } else if (redirectType == Token.TokenType.APPEND) {
+            return ">>";
+        } else if (redirectType == Token.TokenType.PIPE) {
+            return "|";
+        }
+        throw new Exception("Invalid Redirection: Interpreter<RedirectSymbol>");
+    }
+
+    // returns a variable that the VariableResolver gave no slot, NF, NR and FNR are only worked out when they are asked for
+    InterpreterDataType GetVariable(String name) {
+        InterpreterDataType value = globalVariables.get(name);
+        if (value != null) { return value; }
+        if (name.equals("NF")) { // NF needs the whole record split
+            return InterpreterDataType.Of(lineManager.GetNF());
+        } else if (name.equals("NR")) {
+            return InterpreterDataType.Of(lineManager.GetNR());
+        } else if (name.equals("FNR")) {
+            return InterpreterDataType.Of(lineManager.GetFNR());
+        }
+        return InterpreterDataType.EMPTY; // variables that were never assigned are empty
+    }
+
+    // deletes one element of an array, or the whole array when index is null, an array that does not exist is left alone
+    void Delete(VariableReferenceNode vNode, InterpreterDataType index, InterpreterDataType[] locals) throws Exception {
+        if (vNode.slot != VariableReferenceNode.UNRESOLVED && !vNode.local) { // the array is a global with a slot
+            if (index == null) { // indices not set so delete it all
+                if (globalSlots[vNode.slot] instanceof InterpreterArrayDataType arr) { arr.Clear(); }  // lets a spilled array delete its run files
+                globalSlots[vNode.slot] = null;
+            } else if (globalSlots[vNode.slot] != null) { // indices are set so only delete that
+                GetArray(vNode, locals).Remove(index);
             }
-        } else if (stmt instanceof IfNode) { // checks if statement node is a IfNode
-            IfNode ifNode = (IfNode) stmt;
-            IfNode curr = ifNode;
-            InterpreterDataType condition = GetIDT(curr.getCondition(), locals); // checks the condition of the if statement using GetIDT
-            while (condition == null || condition.getStr() == "true") {
-                ReturnType interStmt = InterpretListOfStatements(curr.getBlockNode().getStatement(), locals);
-                if (interStmt.getReturnEnum() != ReturnType.ReturnEnums.Normal) { // returns only if the return enums is not normal
-                    return interStmt;
+        } else if (vNode.local) { // the array is a parameter, which may be the caller's array so it is emptied rather than dropped
+            if (locals[vNode.slot] instanceof InterpreterArrayDataType arr) {
+                if (index == null) { // indices not set so delete it all
+                    arr.Clear();
+                } else { // indices are set so only delete that
+                    arr.Remove(index);
                 }
-                curr = (IfNode) ifNode.getNext(); // moves to the next if node
-                condition = GetIDT(curr.getCondition(), locals); // evaluates the condition again
-            }
-        } else if (stmt instanceof ReturnNode) { // checks if statement node is a ReturnNode
-            ReturnNode returnNode = (ReturnNode) stmt;
-            if (returnNode.getStatement() == null) { // return without an expression
-                return new ReturnType(ReturnType.ReturnEnums.Return);
-            } else { // return with an expression
-                return new ReturnType(ReturnType.ReturnEnums.Return, GetIDT(returnNode.getStatement(), locals).getStr());
             }
-        } else if (stmt instanceof WhileNode) { // checks if statement node is a WhileNode
-            WhileNode whileNode = (WhileNode) stmt;
-            InterpreterDataType condition = GetIDT(whileNode.getCondition(), locals); // evaluates the condition
-            while (condition.getStr() == "true") {
-                ReturnType interStmt = InterpretListOfStatements(whileNode.getBlockNode().getStatement(), locals);
-                if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Break) { // checks if the return enum is break and returns break
-                    return new ReturnType(ReturnType.ReturnEnums.Break);
-                } else if (interStmt.getReturnEnum() == ReturnType.ReturnEnums.Return) { // checks if the return enum is return and returns the result
-                    return interStmt;
-                }
-                condition = GetIDT(whileNode.getCondition(), locals); // evaluates the condition again
+        } else if (globalVariables.containsKey(vNode.getName())) { // globals contains the array
+            InterpreterArrayDataType arr = (InterpreterArrayDataType) globalVariables.get(vNode.getName());
+            if (index == null) { // indices not set so delete it all
+                arr.Clear();
+                globalVariables.remove(vNode.getName()); // removes the array from global
+            } else { // indices are set so only delete that
+                arr.Remove(index);
             }
         }
-        InterpreterDataType gotIDT = GetIDT(stmt, locals);
-        if (gotIDT == null) {
-            throw new Exception("Node is not found: Interpreter<ProcessStatement>");
+    }
+
+    // stores a value in a variable that is not an array element, function parameters are kept in the locals and everything else is global
+    void AssignVariable(VariableReferenceNode vNode, InterpreterDataType value, InterpreterDataType[] localVariables) {
+        if (vNode.slot != VariableReferenceNode.UNRESOLVED && !vNode.local) {
+            globalSlots[vNode.slot] = value;
+        } else if (vNode.local) {
+            localVariables[vNode.slot] = value;
         } else {
-            return new ReturnType(ReturnType.ReturnEnums.Normal, gotIDT.getStr());
+            globalVariables.put(vNode.getName(), value);
+            NumberFormatter.Assigned(vNode.getName(), value);  // CONVFMT and OFMT are only looked at again when assigned
         }
     }
 
-    // yippeee :DDDDDDDDDDDDDD
-    ReturnType InterpretListOfStatements(LinkedList<StatementNode> statements, HashMap<String, InterpreterDataType> locals) throws Exception {
-        for (StatementNode stNode : statements) { // loops through given linked list of statement nodes
-            ReturnType rType = ProcessStatement(locals, stNode); // calls process statement and checks the return enum
-            if (rType.getReturnEnum() != ReturnType.ReturnEnums.Normal) { return rType; } // return the result only if the return enum is normal
+    // returns the array a variable names, a parameter or a global with a slot is found without looking its name up
+    InterpreterArrayDataType GetArray(VariableReferenceNode vNode, InterpreterDataType[] localVariables) throws Exception {
+        if (vNode.slot == VariableReferenceNode.UNRESOLVED) { return GetArray(vNode.getName()); }
+        InterpreterDataType[] slots = vNode.local ? localVariables : globalSlots;
+        InterpreterDataType array = slots[vNode.slot];
+        if (array == null) { // a parameter that was not given an array gets a new one of its own
+            array = new InterpreterArrayDataType();
+            slots[vNode.slot] = array;
+        }
+        if (!(array instanceof InterpreterArrayDataType)) {
+            throw new Exception("Not an Array: Interpreter<GetArray>");
         }
-        return new ReturnType(ReturnType.ReturnEnums.Normal);
+        return (InterpreterArrayDataType) array;
     }
 
-    // GetIDT method takes a node and a hashmap of local variables. It evaluates the node and returns and IDT.
-    InterpreterDataType GetIDT(Node node, HashMap<String, InterpreterDataType> localVariables) throws Exception {
-        if (node instanceof AssignmentNode) { // If instance of AssignmentNode it check if it is an instance of VariableReferenceNode or OperationNode, gets the required information, adds it to the local variables and returns it
-            Node leftNode = ((AssignmentNode) node).target;
-            if (leftNode instanceof VariableReferenceNode) { // if it is an instance of VariableReferenceNode
-                InterpreterDataType rightSide = GetIDT(((AssignmentNode) node).expression, localVariables);
-                localVariables.put(leftNode.toString(), rightSide);
-                return rightSide;
-            } else if (leftNode instanceof OperationNode) { // if it is an instance of OperationNode check for a dollar sign
-                if (((OperationNode) leftNode).thisEnum == OperationNode.OperationList.DOLLAR) {
-                    InterpreterDataType rightSide = GetIDT(((AssignmentNode) node).expression, localVariables);
-                    localVariables.put(leftNode.toString(), rightSide);
-                    return rightSide;
-                }
-            }
-        } else if (node instanceof ConstantNode) { // If instance of ConstantNode it returns a new InterpreterDataType with the string value
-            return new InterpreterDataType(((ConstantNode) node).getStr());
-        } else if (node instanceof FunctionCallNode) { // If instance of FunctionCallNode it returns an empty string for now
-            return new InterpreterDataType(RunFunctionCall((FunctionCallNode) node, localVariables));
-        } else if (node instanceof PatternNode) { // If instance of PatternNode it returns an exception
-            throw new Exception("Passing Pattern to Function: Interpreter<GetIDT(PatternNode)>");
-        } else if (node instanceof TernaryNode tNode) { // If instance of TernaryNode, first check if the condition is true or false, depending on that run the true or false case
-            InterpreterDataType booleanCondition = GetIDT(tNode.checkCase, localVariables); // condition checking for TernaryNode
-            if (booleanCondition.getStr().equals("false")) { // false case for TernaryNode
-                if (tNode.falseCase.isEmpty()) {
-                    throw new Exception("falseCase is Empty: Interpreter<GetIDT(TernaryNode)>");
-                }
-                return GetIDT(tNode.falseCase.get(), localVariables);
-            } else { // true case for TernaryNode
-                if (tNode.trueCase.isEmpty()) {
-                    throw new Exception("trueCase is Empty: Interpreter<GetIDT(TernaryNode)>");
-                }
-                return GetIDT(tNode.trueCase.get(), localVariables);
-            }
-        } else if (node instanceof VariableReferenceNode) { // If instance of VariableReferenceNode, check if expression is empty. If it is then we look through the local and global variables hashmaps. If it is not, it is an array reference.
-            VariableReferenceNode vNode = (VariableReferenceNode) node;
-            if (vNode.expression == null || vNode.expression.isEmpty()) { // expression is empty/null
-                if (localVariables.containsKey(vNode.getName())) {
-                    return localVariables.get(vNode.getName());
-                } else if (globalVariables.containsKey(vNode.getName())) {
-                    return globalVariables.get(vNode.getName());
-                }
-            } else { // expression exists so it is an array reference. We use GetIDT to get the index and then look for it in local variables. If it is there and is of type InterpreterArrayData type, return it.
-                InterpreterDataType resolvedIndex = GetIDT(vNode.expression.get(), localVariables);
-                InterpreterDataType indexReturn = localVariables.get(vNode.getName());
-                if (indexReturn instanceof InterpreterArrayDataType) { // only returns if the value is of type InterpreterArrayDataType
-                    return ((InterpreterArrayDataType) indexReturn).iadt.get(resolvedIndex.getStr());
-                } else {
-                    throw new Exception("Error indexReturn is not of type InterpreterArrayDataType: Interpreter<GetIDT(VariableReferenceNode)>");
-                }
-            }
-        } else if (node instanceof OperationNode opNode) { // If instance of OperationNode, check which operation type it is and handle each case seperately.
-            InterpreterDataType left = GetIDT(opNode.left, localVariables);
-            if (opNode.thisEnum == OperationNode.OperationList.EXPONENT) { // operation type is exponents so you try to convert to float and return the correct answer
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(EXPONENT)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(Math.pow(leftFloat, rightFloat)));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(EXPONENT)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.ADD) { // operation type is add, so you try to convert to float and return answer after adding
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(ADD)>");
-                    }
-                    InterpreterDataType test = GetIDT(opNode.right.get(), localVariables);
-                    float rightFloat = Float.parseFloat(test.getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat + rightFloat));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(ADD)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.SUBTRACT) { // operation type is multiply, so you try to convert to float and return answer after subtracting
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(SUBTRACT)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat - rightFloat));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(SUBTRACT)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.MULTIPLY) { // operation type is multipy, so you try to convert to float and return answer after multiplying
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(MULTIPLY)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat * rightFloat));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(MULTIPLY)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.DIVIDE) { // operation type is divide, so you try to convert to float and return answer after dividing
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(DIVIDE)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat / rightFloat));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(Divide)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.MODULO) { // operation type is modulo, so you try to convert to float and return answer after modulo
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(MODULO)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat % rightFloat));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(MODULO)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.ASSIGN) { // operation type is assign, so you check if it a VariableReferenceNode, if it is then put it into the localVariables hashmap and return the value.
-                if (opNode.left instanceof VariableReferenceNode) {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(ASSIGN)>");
-                    }
-                    localVariables.put(((VariableReferenceNode) opNode.left).getName(), GetIDT(opNode.right.get(), localVariables));
-                    return localVariables.get(((VariableReferenceNode) opNode.left).getName());
-                } else {
-                    throw new Exception("Assign Error: Interpreter<OperationNode(ASSIGN)");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.EQ) { // operation type is equal, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(EQ)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat == rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(EQ)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(leftString.equals(rightString)));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.NE) { // operation type is not equal to, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(NE)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat != rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(NE)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(!Objects.equals(leftString, rightString)));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.LT) { // operation type is less than, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(LT)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat < rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(LT)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(leftString.compareTo(rightString) < 0));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.LE) { // operation type is less than equal, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(LE)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat <= rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(LE)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(leftString.compareTo(rightString) <= 0));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.GT) { // operation type is greater than, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(GT)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat > rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(GT)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(leftString.compareTo(rightString) > 0));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.GE) { // operation type is greater than equal, so you try to convert to float, if it converts successfully, compare the floats, or else you compare strings
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(GE)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat >= rightFloat));
-                } catch (NumberFormatException e) {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(GE)>");
-                    }
-                    String rightString = GetIDT(opNode.right.get(), localVariables).getStr();
-                    return new InterpreterDataType(String.valueOf(leftString.compareTo(rightString) >= 0));
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.AND) { // operation type is and, so you try to convert to float and return boolean the value of and applied on the left expression and right
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(AND)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    boolean leftCheckZero = leftFloat == 0;
-                    boolean rightCheckZero = rightFloat == 0;
-                    return new InterpreterDataType(String.valueOf(leftCheckZero && rightCheckZero));
-                } catch (NumberFormatException e) {
-                    return new InterpreterDataType("false");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.OR) { // operation type is or, so you try to convert to float and return the boolean value of or applied on the left expression and right
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(OR)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    boolean leftCheckZero = leftFloat == 0;
-                    boolean rightCheckZero = rightFloat == 0;
-                    return new InterpreterDataType(String.valueOf(leftCheckZero || rightCheckZero));
-                } catch (NumberFormatException e) {
-                    return new InterpreterDataType("false");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.NOT) { // operation type is not, so you try to convert the right expression to float and return the not value of it
-                try {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(NOT)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    boolean rightCheckZero = rightFloat == 0;
-                    return new InterpreterDataType(String.valueOf(!rightCheckZero));
-                } catch (NumberFormatException e) {
-                    return new InterpreterDataType("false");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.MATCH) { // operation type is match, so you try to find a match of the right expression in the left expression and return a boolean
-                try {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<GetIDT(MATCH)>");
-                    }
-                    PatternNode rightPattern = (PatternNode) opNode.right.get();
-                    Pattern pattern = Pattern.compile(rightPattern.getPattern());
-                    Matcher matcher = pattern.matcher(leftString);
-                    return new InterpreterDataType(String.valueOf(matcher.find()));
-                } catch (PatternSyntaxException e) {
-                    throw new Exception("Error in Regex Matching: Interpreter<GetIDT(MATCH)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.NOTMATCH) { // operation type is not match, so you try to find a match of the right expression in the left expression and return the opposite boolean
-                try {
-                    String leftString = left.getStr();
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<GetIDT(NOTMATCH)>");
-                    }
-                    PatternNode rightPattern = (PatternNode) opNode.right.get();
-                    Pattern pattern = Pattern.compile(rightPattern.getPattern());
-                    Matcher matcher = pattern.matcher(leftString);
-                    return new InterpreterDataType(String.valueOf(!matcher.find()));
-                } catch (PatternSyntaxException e) {
-                    throw new Exception("Error in Regex Matching: Interpreter<GetIDT(NOTMATCH)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.DOLLAR) { // operation type is dollar, so you get the left expression and return it with a dollar sign in front of it
-                return new InterpreterDataType("$" + GetIDT(opNode.left, localVariables).getStr());
-            } else if (opNode.thisEnum == OperationNode.OperationList.PREINC) { // operation type is preinc, so you get the right expression, add one to it, and return it
-                try {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(PREINC)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(rightFloat + 1));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(PREINC)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.POSTINC) { // operation type is preinc, so you get the left expression, add one to it, and return it
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat + 1));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(POSTINC)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.PREDEC) { // operation type is predec, so you get the right expression, subtract one from it, and return it
-                try {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(PREDEC)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(rightFloat - 1.0));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(PREDEC)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.POSTDEC) { // operation type is predec, so you get the left expression, subtract one from it, and return it
-                try {
-                    float leftFloat = Float.parseFloat(left.getStr());
-                    return new InterpreterDataType(String.valueOf(leftFloat - 1.0));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(POSTDEC)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.UNARYPOS) { // operation type is unarypos, so you get the right expression, and multipy 1.0 to it
-                try {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(UNARYPOS)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(rightFloat * 1.0));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(UNARYPOS)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.UNARYNEG) { // operation type is unarypos, so you get the right expression, and multipy -1.0 to it
-                try {
-                    if (opNode.right.isEmpty()) {
-                        throw new Exception("Right is Empty: Interpreter<OperationNode(UNARYNEG)>");
-                    }
-                    float rightFloat = Float.parseFloat(GetIDT(opNode.right.get(), localVariables).getStr());
-                    return new InterpreterDataType(String.valueOf(rightFloat * (-1.0)));
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid Numbers: Interpreter<OperationNode(UNARYNEG)>");
-                }
-            } else if (opNode.thisEnum == OperationNode.OperationList.CONCATENATION) { // operation type is concatenation, so you get the left expression and right expression, combine them into one string and return it
-                if (opNode.right.isEmpty()) {
-                    throw new Exception("Right is Empty: Interpreter<OperationNode(CONCATENATION)>");
-                }
-                return new InterpreterDataType(opNode.left.toString() + opNode.right.toString());
-            } else if (opNode.thisEnum == OperationNode.OperationList.IN) { // operation type is in, so you get the right expression and check if the left exists in the local or global variables, if it does then return the value
-                if (opNode.right.isEmpty()) {
-                    throw new Exception("Right is Empty: Interpreter<OperationNode(IN)>");
-                }
-                if (opNode.right.get() instanceof VariableReferenceNode vNode) {
-                    if (vNode.expression.isPresent()) {
-                        if (localVariables.containsKey(opNode.left.toString())) {
-                            return localVariables.get(opNode.left.toString());
-                        } else if (globalVariables.containsKey(opNode.left.toString())) {
-                            return globalVariables.get(opNode.left.toString());
-                        }
-                    } else {
-                        throw new Exception("Not an Array: Interpreter<OperationNode(IN)>");
-                    }
-                }
-            }
+    // returns the global array with the given name, creating it if it does not exist yet
+    InterpreterArrayDataType GetArray(String name) throws Exception {
+        InterpreterDataType array = GetGlobal(name);
+        if (array == null) {
+            array = new InterpreterArrayDataType();
+            PutGlobal(name, array);
+        }
+        if (!(array instanceof InterpreterArrayDataType)) {
+            throw new Exception("Not an Array: Interpreter<GetArray>");
         }
-        return null;
+        return (InterpreterArrayDataType) array;
+    }
+
+    // returns a global by its name, from its slot if it has one
+    InterpreterDataType GetGlobal(String name) {
+        Integer slot = globalSlotIndex.get(name);
+        return slot != null ? globalSlots[slot] : globalVariables.get(name);
+    }
+
+    // stores a global by its name, CONVFMT and OFMT never have a slot so their formatters are made again here
+    void PutGlobal(String name, InterpreterDataType value) {
+        Integer slot = globalSlotIndex.get(name);
+        if (slot != null) {
+            globalSlots[slot] = value;
+        } else {
+            globalVariables.put(name, value);
+            NumberFormatter.Assigned(name, value);
+        }
+    }
+
+    // compares two values as numbers if they both are numbers, and as strings otherwise
+    static int CompareValues(InterpreterDataType first, InterpreterDataType second) {
+        if (first.IsNumeric() && second.IsNumeric()) {
+            if (first.IsInteger() && second.IsInteger()) { return Long.compare(first.getInteger(), second.getInteger()); }
+            return Double.compare(first.getNum(), second.getNum());
+        }
+        return first.getStr().compareTo(second.getStr());
+    }
+
+    // a number is true when it is not 0 and a string is true when it is not empty, comparisons give the shared TRUE or FALSE
+    static boolean IsTrue(InterpreterDataType value) {
+        if (value == InterpreterDataType.TRUE) { return true; }
+        if (value == InterpreterDataType.FALSE) { return false; }
+        if (value.IsNumeric()) { return value.getNum() != 0; }
+        return !value.getStr().isEmpty();
+    }
+
+    // turns the value after a dollar sign into a field index
+    int FieldIndex(InterpreterDataType index) {
+        return (int) index.getNum();
     }
 }
@@ -1,23 +1,212 @@
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /*
  * The Interpreter Array Data Type class which extends Interpreter Data Type.
+ * Elements whose keys are small whole numbers (written the usual way, so "1"
+ * but not "01" or "1.0") are kept in a plain array indexed by the number, which
+ * is what split() and for (i = 1; i <= n; i++) loops fill. Every other key goes
+ * in an ArrayStore, which is only made once such a key is stored. A whole number key
+ * only goes in the array while the array would stay at least half full, so a few
+ * large keys do not make it huge. for (k in arr) visits the array keys in order
+ * and then the keys of the store. Like in AWK the keys it gives are strings, even
+ * the ones that look like numbers, and the strings of the array keys are kept so
+ * looping again does not make them again.
+ *
+ * The store starts out as a HeapArrayStore and is moved to an OffHeapArrayStore
+ * once it holds OFF_HEAP_THRESHOLD keys, or right away when offHeap is set. When
+ * memoryBudget is set the store is a SpillingArrayStore instead, which writes
+ * what does not fit in the budget to disk (the budget is for each array).
  *
  * @author Benjamin Babu (bbabu@albany.edu)
  */
 public class InterpreterArrayDataType extends InterpreterDataType {
-    HashMap<String, InterpreterDataType> iadt;
+    private static final int MIN_DENSE = 8;
+    private static final int NOT_DENSE = -1;
+    static final int OFF_HEAP_THRESHOLD = 1 << 20;
+    static boolean offHeap = false;     // set by -offheap so every array keeps its store off the heap
+    static long memoryBudget = 0;       // set by -spill, the bytes of elements each array keeps in memory before spilling to disk
+
+    private InterpreterDataType[] dense = new InterpreterDataType[0];  // dense[i] holds arr[i], every whole number key below dense.length is in here
+    private int denseCount = 0;                                         // how many elements of dense are set
+    private InterpreterDataType[] denseKeys = new InterpreterDataType[0];   // denseKeys[i] is the key "i", made the first time the keys are looped over
+    private ArrayStore hash;                                            // every other key, null until one is stored
+    private boolean hashHasIndexes = false;                             // true once a whole number key has gone in the store
 
     public InterpreterArrayDataType() {
-        this.iadt = new HashMap<>();
     }
 
-    HashMap<String, InterpreterDataType> getIADT() {
-        return iadt;
+    InterpreterDataType Get(String key) {
+        int index = DenseIndex(key);
+        if (index != NOT_DENSE) { return Get(index); }
+        return hash == null ? null : hash.Get(key);
+    }
+
+    InterpreterDataType Get(InterpreterDataType key) {
+        int index = DenseIndex(key);
+        if (index != NOT_DENSE) { return Get(index); }
+        return hash == null ? null : hash.Get(key.getStr());
+    }
+
+    InterpreterDataType Get(int index) {
+        if (index < dense.length) { return dense[index]; }
+        return hash == null ? null : hash.Get(Integer.toString(index));
+    }
+
+    void Put(String key, InterpreterDataType value) {
+        int index = DenseIndex(key);
+        if (index != NOT_DENSE) {
+            Put(index, value);
+        } else {
+            HashPut(key, value);
+        }
+    }
+
+    void Put(InterpreterDataType key, InterpreterDataType value) {
+        int index = DenseIndex(key);
+        if (index != NOT_DENSE) {
+            Put(index, value);
+        } else {
+            HashPut(key.getStr(), value);
+        }
+    }
+
+    void Put(int index, InterpreterDataType value) {
+        if (index >= dense.length && index <= 2 * denseCount + MIN_DENSE) { Grow(index); }
+        if (index < dense.length) {
+            if (dense[index] == null) { denseCount++; }
+            dense[index] = value;
+        } else {
+            HashPut(Integer.toString(index), value);
+        }
+    }
+
+    boolean Contains(String key) {
+        return Get(key) != null;
+    }
+
+    boolean Contains(InterpreterDataType key) {
+        return Get(key) != null;
+    }
+
+    void Remove(InterpreterDataType key) {
+        int index = DenseIndex(key);
+        if (index != NOT_DENSE && index < dense.length) {
+            if (dense[index] != null) { denseCount--; }
+            dense[index] = null;
+        } else if (hash != null) {
+            hash.Remove(index != NOT_DENSE ? Integer.toString(index) : key.getStr());
+        }
+    }
+
+    int Size() {
+        return denseCount + (hash == null ? 0 : hash.Size());
+    }
+
+    void Clear() {
+        if (hash != null) { hash.Close(); }   // a spilled store deletes its run files
+        dense = new InterpreterDataType[0];
+        denseCount = 0;
+        denseKeys = new InterpreterDataType[0];
+        hash = null;
+        hashHasIndexes = false;
+    }
+
+    // copies every element of another array into this one
+    void PutAll(InterpreterArrayDataType other) {
+        for (InterpreterDataType key : other.Keys()) {
+            Put(key, other.Get(key));
+        }
+    }
+
+    /*
+     * This method is used to return the keys of the array, the array
+     * keys in order and then the keys of the store. The array keys are
+     * a copy and the store keys can be changed while they are looped over.
+     *
+     * @return Iterable<InterpreterDataType>
+     */
+    Iterable<InterpreterDataType> Keys() {
+        List<InterpreterDataType> keys = new ArrayList<>(denseCount);
+        if (denseKeys.length < dense.length) { denseKeys = Arrays.copyOf(denseKeys, dense.length); }
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != null) {
+                if (denseKeys[i] == null) { denseKeys[i] = InterpreterDataType.OfString(Integer.toString(i)); }
+                keys.add(denseKeys[i]);
+            }
+        }
+        if (hash == null) { return keys; }
+        Stream<InterpreterDataType> storeKeys = StreamSupport.stream(hash.Keys().spliterator(), false).map(InterpreterDataType::OfString);
+        return Stream.concat(keys.stream(), storeKeys)::iterator;
+    }
+
+    private void HashPut(String key, InterpreterDataType value) {
+        if (hash == null) {
+            if (memoryBudget > 0) {
+                hash = new SpillingArrayStore(memoryBudget);
+            } else {
+                hash = offHeap ? new OffHeapArrayStore() : new HeapArrayStore();
+            }
+        }
+        if (!hashHasIndexes && DenseIndex(key) != NOT_DENSE) { hashHasIndexes = true; }
+        hash.Put(key, value);
+        if (hash instanceof HeapArrayStore && hash.Size() >= OFF_HEAP_THRESHOLD) { // big enough that the heap entries cost more than they are worth
+            ArrayStore moved = new OffHeapArrayStore();
+            for (String storedKey : hash.Keys()) {
+                moved.Put(storedKey, hash.Get(storedKey));
+            }
+            hash = moved;
+        }
+    }
+
+    // makes the array big enough for index and moves the whole number keys it now covers out of the hash map
+    private void Grow(int index) {
+        int oldLength = dense.length;
+        int newLength = Math.max(Math.max(index + 1, oldLength * 2), MIN_DENSE);
+        dense = Arrays.copyOf(dense, newLength);
+        if (hash == null || !hashHasIndexes) { return; }
+        for (String key : hash.Keys()) {
+            int moved = DenseIndex(key);
+            if (moved != NOT_DENSE && moved >= oldLength && moved < newLength) {
+                dense[moved] = hash.Get(key);
+                denseCount++;
+                hash.Remove(key);
+            }
+        }
+    }
+
+    // returns the whole number a key made from a number stands for without making its string
+    private static int DenseIndex(InterpreterDataType key) {
+        if (key.IsNumber() && key.IsInteger()) {
+            long integer = key.getInteger();
+            return integer >= 0 && integer < Integer.MAX_VALUE ? (int) integer : NOT_DENSE;
+        }
+        return DenseIndex(key.getStr());
+    }
+
+    // returns the whole number the key is written as, or NOT_DENSE if it is not a plain whole number
+    private static int DenseIndex(String key) {
+        int length = key.length();
+        if (length == 0 || length > 9 || (key.charAt(0) == '0' && length > 1)) { return NOT_DENSE; }
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') { return NOT_DENSE; }
+            index = index * 10 + (c - '0');
+        }
+        return index;
     }
 
     @Override
     public String toString() {
-        return "InterpreterArrayDataType: " + iadt.toString();
+        StringBuilder builder = new StringBuilder("InterpreterArrayDataType: {");
+        for (InterpreterDataType key : Keys()) {
+            if (builder.charAt(builder.length() - 1) != '{') { builder.append(", "); }
+            builder.append(key.getStr()).append('=').append(Get(key).getStr());
+        }
+        return builder.append('}').toString();
     }
 }
@@ -1,25 +1,167 @@
 /*
- * The Interpreter Data Type class.
+ * The Interpreter Data Type class. A value keeps both its string and its
+ * number so neither has to be worked out more than once: a value made from
+ * a string only parses its number the first time it is used in arithmetic,
+ * and a value made from a number only makes its string when it is printed
+ * or concatenated. Whole numbers are also kept as a long so they stay exact
+ * and are written out directly, only other numbers go through CONVFMT
+ * (or OFMT when they are printed) using NumberFormatter.
+ *
+ * Values are never changed once they are made (only the string or number
+ * that has not been worked out yet gets filled in), so the results of
+ * comparisons and small whole numbers are shared instead of made each time.
+ * TRUE and FALSE are the shared 1 and 0, so truth can be checked by identity.
+ * EMPTY, the value of anything never set, is both "" and 0 like in AWK, so it
+ * compares equal to either of them.
+ *
+ * Parallel workers can share a value, so the flags that say a lazily worked
+ * out number or classification is ready are volatile and written after what
+ * they guard. Values made from numbers never write them, they already know.
  *
  * @author Benjamin Babu (bbabu@albany.edu)
  */
 public class InterpreterDataType {
-    String str;
+    private static final double LONG_RANGE = 0x1p63;
+    private static final int SMALL_MIN = -128;
+    private static final int SMALL_MAX = 1023;
+    private static final InterpreterDataType[] SMALL_INTEGERS = new InterpreterDataType[SMALL_MAX - SMALL_MIN + 1];
+    static {
+        for (int i = SMALL_MIN; i <= SMALL_MAX; i++) {
+            InterpreterDataType value = new InterpreterDataType((long) i);
+            value.getStr(); // filled in now so the shared value is never written to again
+            SMALL_INTEGERS[i - SMALL_MIN] = value;
+        }
+    }
+    static final InterpreterDataType TRUE = SMALL_INTEGERS[1 - SMALL_MIN];
+    static final InterpreterDataType FALSE = SMALL_INTEGERS[-SMALL_MIN];
+    static final InterpreterDataType EMPTY = new InterpreterDataType(); // the value of anything that was never set
+
+    String str;         // null until a value made from a number is needed as a string
+    double num;
+    long integer;       // the value when isInteger is set, exact even past 2^53
+    volatile boolean hasNum;    // true once num holds the numeric value of the string, always true when number is set
+    boolean isInteger;  // true when the number is a whole number that fits in a long
+    volatile byte numeric;      // 0 until checked, then 1 if the value is a number and -1 if it is not, unused when number is set
+    boolean number;     // true when the value was made from a number rather than a string
+    NumberFormatter formattedWith;  // the CONVFMT str was made with, so it is made again if CONVFMT changes
 
-    public InterpreterDataType() {
+    public InterpreterDataType() {   // an uninitialized value, a strnum that is "" and 0
         this.str = "";
+        this.isInteger = true;
+        this.hasNum = true;
+        this.numeric = 1;
     }
 
     public InterpreterDataType(String inputStr) {
         this.str = inputStr;
     }
 
+    public InterpreterDataType(double inputNum) {
+        SetNumber(inputNum);
+        this.number = true;
+    }
+
+    public InterpreterDataType(long inputInteger) {
+        this.num = inputInteger;
+        this.integer = inputInteger;
+        this.isInteger = true;
+        this.number = true;
+    }
+
+    // returns the shared TRUE or FALSE
+    static InterpreterDataType Of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    // returns the shared value for small whole numbers and a new one otherwise
+    static InterpreterDataType Of(long value) {
+        if (value >= SMALL_MIN && value <= SMALL_MAX) { return SMALL_INTEGERS[(int) value - SMALL_MIN]; }
+        return new InterpreterDataType(value);
+    }
+
+    // returns a string that is never compared as a number, even when it looks like one
+    static InterpreterDataType OfString(String value) {
+        InterpreterDataType string = new InterpreterDataType(value);
+        string.numeric = -1;
+        return string;
+    }
+
     String getStr() {
+        if (str == null || (formattedWith != null && formattedWith != NumberFormatter.conversion)) {
+            if (isInteger) {
+                str = Long.toString(integer);
+            } else {
+                formattedWith = NumberFormatter.conversion;
+                str = formattedWith.Format(num);
+            }
+        }
         return str;
     }
 
+    // returns the string print writes for the value, which uses OFMT instead of CONVFMT for numbers that are not whole
+    String getOutputStr() {
+        if (!number || isInteger || NumberFormatter.output.SameFormat(NumberFormatter.conversion)) { return getStr(); }
+        return NumberFormatter.output.Format(num);
+    }
+
+    /*
+     * This method is used to return the value as a number, using the
+     * number at the front of the string and 0 if there is none.
+     *
+     * @return double
+     */
+    double getNum() {
+        if (!number && !hasNum) {
+            long parsed = NumericScanner.ParseInteger(str);
+            if (parsed != NumericScanner.NOT_INTEGER) {
+                num = parsed;
+                integer = parsed;
+                isInteger = true;
+            } else {
+                SetNumber(NumericScanner.ParseNumber(str));
+            }
+            hasNum = true;  // last, so a worker that sees it also sees the number
+        }
+        return num;
+    }
+
+    boolean IsInteger() {
+        getNum();
+        return isInteger;
+    }
+
+    long getInteger() {
+        return integer;
+    }
+
+    // true when the value was made from a number, so its string is only how the number is written out
+    boolean IsNumber() {
+        return number;
+    }
+
+    /*
+     * This method is used to tell if the value should be compared as
+     * a number, which is when it was made from one or its whole string
+     * looks like one.
+     *
+     * @return boolean
+     */
+    boolean IsNumeric() {
+        if (number) { return true; }
+        if (numeric == 0) { numeric = NumericScanner.LooksNumeric(str) ? (byte) 1 : (byte) -1; }
+        return numeric > 0;
+    }
+
+    private void SetNumber(double number) {
+        num = number;
+        if (number == Math.rint(number) && Math.abs(number) < LONG_RANGE) { // whole numbers are kept as longs too
+            integer = (long) number;
+            isInteger = true;
+        }
+    }
+
     @Override
     public String toString() {
-        return "InterpreterDataType: " + str;
+        return "InterpreterDataType: " + getStr();
     }
 }
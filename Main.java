@@ -1,6 +1,8 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /*
  * The Main class which implements the main method
@@ -16,17 +18,72 @@ import java.nio.file.Paths;
  * java csi311.interpreter4.Main csi311\interpreter4\test3.awk
  * java csi311.interpreter4.Main csi311\interpreter4\test4.awk
  * java csi311.interpreter4.Main csi311\interpreter4\test5.awk
+ *
+ * An input file can be given after the program, otherwise the program file is read as input.
+ * Passing -mmap before the program memory maps the input file instead of streaming it.
+ * Passing -parallel runs the main rules on several records at once when they keep no state between records.
+ * Passing -csv splits the records as CSV instead of with FS.
+ * Passing -offheap keeps the elements of every array off the heap, which big arrays do anyway.
+ * Passing -jit compiles the rules and functions into a class the JVM runs like the rest of the code, instead of running them as
+ * closures. Numbers are still boxed InterpreterDataTypes in that class, it does not make typed numeric code.
+ * Passing -spill followed by a number of megabytes lets each array keep that much in memory and writes the rest to disk.
+ * Passing -v followed by name=value sets that variable before the BEGIN rules run, it can be given more than once.
  */
 public class Main {
     public static void main(String[] args) throws Exception {
-        if (args.length > 0) {
-            Path myPath = Paths.get(args[0]);
+        int argIndex = 0;
+        boolean mapInput = false;
+        boolean parallel = false;
+        boolean csvInput = false;
+        boolean bytecode = false;
+        List<String> assignments = new ArrayList<>();
+        while (args.length > argIndex && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-mmap")) {
+                mapInput = true;
+            } else if (args[argIndex].equals("-parallel")) {
+                parallel = true;
+            } else if (args[argIndex].equals("-csv")) {
+                csvInput = true;
+            } else if (args[argIndex].equals("-jit")) {
+                bytecode = true;
+            } else if (args[argIndex].equals("-offheap")) {
+                InterpreterArrayDataType.offHeap = true;
+            } else if (args[argIndex].equals("-spill") && args.length > argIndex + 1) {
+                argIndex++;
+                InterpreterArrayDataType.memoryBudget = Long.parseLong(args[argIndex]) << 20;
+            } else if (args[argIndex].equals("-v") && args.length > argIndex + 1 && args[argIndex + 1].indexOf('=') > 0) {
+                argIndex++;
+                assignments.add(args[argIndex]);
+            } else {
+                throw new Exception("Unknown option " + args[argIndex] + ": Main");
+            }
+            argIndex++;
+        }
+        if (args.length > argIndex) {
+            Path myPath = Paths.get(args[argIndex]);
+            Path inputPath = myPath;
+            if (args.length > argIndex + 1) { inputPath = Paths.get(args[argIndex + 1]); }
             String content = new String(Files.readAllBytes(myPath.toAbsolutePath()));
             Lexer lexer = new Lexer(content);
             Parser parser = new Parser(lexer.Lex());
             Parser.ProgramNode pNode = parser.Parse();
-            Interpreter interpreter = new Interpreter(pNode, myPath.toAbsolutePath());
+            ConstantFolder.Fold(pNode);
+            VariableResolver.Resolve(pNode);
+            Interpreter interpreter;
+            if (mapInput) {
+                interpreter = new Interpreter(pNode, inputPath.toAbsolutePath(), true);
+            } else {
+                interpreter = new Interpreter(pNode, inputPath.toAbsolutePath());
+            }
+            interpreter.parallel = parallel;
+            interpreter.csvInput = csvInput;
+            interpreter.bytecode = bytecode;
+            for (String assignment : assignments) {
+                int equals = assignment.indexOf('=');
+                interpreter.PutGlobal(assignment.substring(0, equals), new InterpreterDataType(assignment.substring(equals + 1)));
+            }
             interpreter.InterpretProgram(pNode);
+            if (interpreter.exitStatus != 0) { System.exit(interpreter.exitStatus); }
         }
     }
 }
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * The MappedRecordReader class which implements a RecordReader.
+ * The file is memory mapped one window at a time (so files larger
+ * than 2 GB can be read) and record boundaries are found by scanning
+ * the mapped bytes directly instead of going through a Reader.
+ * Only record separators that are a single byte can be scanned for
+ * that way, for any other RS the rest of the file is handed to a
+ * RecordScanner.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class MappedRecordReader implements RecordReader {
+    static final long WINDOW_SIZE = 1L << 28;
+    private FileChannel channel;
+    private long fileSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private byte[] carry = new byte[256];
+    private byte separator = '\n';
+    private RecordScanner scanner;      // reads the rest of the file once RS is more than one byte
+
+    public MappedRecordReader(Path filePath) throws IOException {
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowStart = 0;
+    }
+
+    public String ReadRecord() throws IOException {
+        if (scanner != null) { return scanner.ReadRecord(); }
+        int carryLength = 0;
+        boolean readAnything = false;
+        while (true) {
+            if (window == null || !window.hasRemaining()) { // maps the next window of the file
+                long nextStart = window == null ? windowStart : windowStart + window.limit();
+                if (nextStart >= fileSize) { // end of the file, return whatever is left over
+                    if (!readAnything) { return null; }
+                    return Decode(carry, carryLength);
+                }
+                windowStart = nextStart;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, fileSize - windowStart));
+            }
+            readAnything = true;
+            int start = window.position();
+            int limit = window.limit();
+            int end = start;
+            while (end < limit && window.get(end) != separator) { end++; } // scans for the end of the record
+            int length = end - start;
+            if (carryLength + length > carry.length) { // grows the carry buffer to fit the record
+                carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + length));
+            }
+            window.get(start, carry, carryLength, length);
+            carryLength += length;
+            if (end < limit) { // found the separator so the record is complete
+                window.position(end + 1);
+                return Decode(carry, carryLength);
+            }
+            window.position(limit); // record continues in the next window
+        }
+    }
+
+    public void SetRecordSeparator(String rs) throws IOException {
+        if (scanner != null) {
+            scanner.Compile(rs);
+            return;
+        }
+        String separators = RecordScanner.Separators(rs);
+        if (separators.length() == 1 && separators.charAt(0) < 0x80) { // a single ASCII character is a single byte in UTF-8
+            separator = (byte) separators.charAt(0);
+            return;
+        }
+        long offset = window == null ? windowStart : windowStart + window.position();
+        window = null;
+        scanner = new RecordScanner(Channels.newReader(channel.position(offset), StandardCharsets.UTF_8));
+        scanner.Compile(rs);
+    }
+
+    // turns the record bytes into a string, dropping the carriage return of a \r\n line ending
+    private String Decode(byte[] bytes, int length) {
+        if (separator == '\n' && length > 0 && bytes[length - 1] == '\r') { length--; }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public void close() throws IOException {
+        window = null;
+        if (scanner != null) { scanner.Close(); }
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedRecordReader: " + windowStart + " of " + fileSize;
+    }
+}
@@ -0,0 +1,187 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * The NumberFormatter class which turns numbers into strings with a printf
+ * style format like CONVFMT (used when a number becomes a string) or OFMT
+ * (used when print writes a number). A format is looked at once when it is
+ * made, and the formatters for CONVFMT and OFMT are only made again when those
+ * variables are assigned.
+ *
+ * Whole numbers are always written as integers, the way AWK does. For %g with
+ * up to MAX_FAST_PRECISION digits, a number whose shortest representation
+ * (what Double.toString gives) has no more digits than the precision is
+ * written straight from those digits, since rounding it to the precision
+ * cannot change them. Other %g and %f numbers are rounded exactly with
+ * BigDecimal, to even on a tie like C does (String.format rounds ties up, so
+ * 1000.125 would come out as 1000.13 instead of 1000.12). Any other format goes
+ * through String.format, with the number made a long for the integer conversions
+ * and a char for %c like C would. A format String.format can not use writes the
+ * number with %.6g instead. The last few numbers each formatter wrote are remembered.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class NumberFormatter {
+    static final String DEFAULT_FORMAT = "%.6g";
+    private static final Pattern SIMPLE_FORMAT = Pattern.compile("%(\\.(\\d+))?([gGf])");
+    private static final double LONG_RANGE = 0x1p63;
+    private static final int MAX_FAST_PRECISION = 15;   // past this the shortest digits can round differently
+    private static final int CACHE_SIZE = 64;
+    private static final NumberFormatter DEFAULT = new NumberFormatter(DEFAULT_FORMAT);
+
+    // The formatters for CONVFMT and OFMT are shared by the whole JVM, since values turn
+    // into strings without knowing which interpreter they belong to. This assumes one
+    // program runs per JVM, like Main does: making a second Interpreter resets both of
+    // them for the first one too. The workers of a parallel run are made from their
+    // parent without a reset and their rules can not assign CONVFMT or OFMT, so they
+    // always format with the parent's settings.
+    static NumberFormatter conversion = DEFAULT;    // CONVFMT
+    static NumberFormatter output = DEFAULT;        // OFMT
+
+    private final String format;
+    private final boolean general;      // true for %g and %G, which drop trailing zeros
+    private final boolean fixed;        // true for %f
+    private final boolean upper;
+    private final int precision;
+    private final boolean integerFormat;    // true for %d %i %o %u %x %X and %c, which take a whole number
+    private final String javaFormat;        // the format for String.format, which has no %i or %u
+    private final Cached[] cache = new Cached[CACHE_SIZE];
+
+    // a number and the string it was formatted as, replaced as a whole so threads never see half of one
+    private static class Cached {
+        final long bits;
+        final String str;
+
+        Cached(long bits, String str) {
+            this.bits = bits;
+            this.str = str;
+        }
+    }
+
+    NumberFormatter(String format) {
+        this.format = format;
+        Matcher matcher = SIMPLE_FORMAT.matcher(format);
+        boolean simple = matcher.matches();
+        general = simple && !matcher.group(3).equals("f");
+        fixed = simple && !general;
+        upper = simple && matcher.group(3).equals("G");
+        int digits = simple && matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 6;
+        precision = general ? Math.max(1, digits) : digits;
+        char last = format.isEmpty() ? ' ' : format.charAt(format.length() - 1);
+        integerFormat = !simple && "dioxXuc".indexOf(last) >= 0;
+        javaFormat = last == 'i' || last == 'u' ? format.substring(0, format.length() - 1) + "d" : format;
+    }
+
+    // sets both formats back to %.6g, which is what a new program starts with
+    static void Reset() {
+        conversion = DEFAULT;
+        output = DEFAULT;
+    }
+
+    // makes the formatter for CONVFMT or OFMT again when one of them is assigned
+    static void Assigned(String name, InterpreterDataType value) {
+        if (name.equals("CONVFMT")) {
+            conversion = Compile(conversion, value.getStr());
+        } else if (name.equals("OFMT")) {
+            output = Compile(output, value.getStr());
+        }
+    }
+
+    private static NumberFormatter Compile(NumberFormatter current, String format) {
+        return current.format.equals(format) ? current : new NumberFormatter(format);
+    }
+
+    boolean SameFormat(NumberFormatter other) {
+        return this == other || format.equals(other.format);
+    }
+
+    /*
+     * This method is used to turn a number into a string with the format.
+     * %g drops trailing zeros the way C does, which Java's %g does not.
+     *
+     * @return String
+     */
+    String Format(double number) {
+        if (number == Math.rint(number) && Math.abs(number) < LONG_RANGE) { return Long.toString((long) number); }
+        if (Double.isNaN(number)) { return "nan"; }
+        if (Double.isInfinite(number)) { return number > 0 ? "inf" : "-inf"; }
+        long bits = Double.doubleToRawLongBits(number);
+        int slot = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9 >>> 26;
+        Cached cached = cache[slot];
+        if (cached != null && cached.bits == bits) { return cached.str; }
+        String str = general && precision <= MAX_FAST_PRECISION && Math.abs(number) >= Double.MIN_NORMAL ? FormatShortest(number) : null;   // subnormals have too few bits for their digits
+        if (str == null) { str = FormatSlowly(number); }
+        cache[slot] = new Cached(bits, str);
+        return str;
+    }
+
+    // writes a %g number from its shortest digits, or returns null if it has more digits than the precision
+    private String FormatShortest(double number) {
+        String shortest = Double.toString(Math.abs(number));
+        int e = shortest.indexOf('E');
+        String mantissa = e < 0 ? shortest : shortest.substring(0, e);
+        int point = mantissa.indexOf('.');
+        StringBuilder digits = new StringBuilder(mantissa.length());
+        digits.append(mantissa, 0, point).append(mantissa, point + 1, mantissa.length());
+        int exponent = point - 1 + (e < 0 ? 0 : Integer.parseInt(shortest.substring(e + 1)));
+        int leading = 0;
+        while (leading < digits.length() - 1 && digits.charAt(leading) == '0') { leading++; }
+        exponent -= leading;
+        int end = digits.length();
+        while (end > leading + 1 && digits.charAt(end - 1) == '0') { end--; }
+        String significant = digits.substring(leading, end);
+        return significant.length() > precision ? null : Layout(number < 0, significant, exponent);
+    }
+
+    // writes %g digits (without trailing zeros) whose first digit is at 10^exponent
+    private String Layout(boolean negative, String significant, int exponent) {
+        StringBuilder result = new StringBuilder(significant.length() + 8);
+        if (negative) { result.append('-'); }
+        if (exponent < -4 || exponent >= precision) {
+            result.append(significant.charAt(0));
+            if (significant.length() > 1) { result.append('.').append(significant, 1, significant.length()); }
+            result.append(upper ? 'E' : 'e').append(exponent < 0 ? '-' : '+');
+            if (Math.abs(exponent) < 10) { result.append('0'); }
+            result.append(Math.abs(exponent));
+        } else if (exponent < 0) {
+            result.append("0.");
+            for (int i = -1; i > exponent; i--) { result.append('0'); }
+            result.append(significant);
+        } else if (significant.length() <= exponent + 1) {
+            result.append(significant);
+            for (int i = significant.length(); i <= exponent; i++) { result.append('0'); }
+        } else {
+            result.append(significant, 0, exponent + 1).append('.').append(significant, exponent + 1, significant.length());
+        }
+        return result.toString();
+    }
+
+    private String FormatSlowly(double number) {
+        if (general) {
+            BigDecimal rounded = new BigDecimal(number).round(new MathContext(precision, RoundingMode.HALF_EVEN)).stripTrailingZeros();
+            String significant = rounded.unscaledValue().abs().toString();
+            return Layout(number < 0, significant, significant.length() - 1 - rounded.scale());
+        } else if (fixed) {
+            String result = new BigDecimal(number).setScale(precision, RoundingMode.HALF_EVEN).toPlainString();
+            return number < 0 && result.charAt(0) != '-' ? "-" + result : result;   // C keeps the sign of a negative number that rounds to 0
+        }
+        try {
+            if (integerFormat) {    // integer formats need a long, and %c a char
+                return format.endsWith("c") ? String.format(Locale.ROOT, javaFormat, (char) (long) number) : String.format(Locale.ROOT, javaFormat, (long) number);
+            }
+            return String.format(Locale.ROOT, javaFormat, number);
+        } catch (IllegalFormatException e) {
+            return DEFAULT.FormatSlowly(number);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NumberFormatter: " + format;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * The NumericScanner class which reads numbers out of strings in a single
+ * pass without throwing. ParseNumber finds the longest number at the front
+ * of a string (after any blanks), plain decimals are worked out directly and
+ * only numbers with an exponent or too many digits go to Double.parseDouble.
+ * ParseInteger does the same for whole numbers so they can be kept exactly.
+ * LooksNumeric tells if the whole string is a number with only blanks around
+ * it, which is when AWK treats a string like a number in a comparison.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class NumericScanner {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT = 1L << 53;    // mantissas below this are exact as a double
+    static final long NOT_INTEGER = Long.MIN_VALUE;     // returned by ParseInteger when the number is not a plain whole number
+
+    private NumericScanner() {
+    }
+
+    /*
+     * This method is used to return the number at the front of the
+     * string, or 0 if the string does not start with a number.
+     *
+     * @return double
+     */
+    static double ParseNumber(String str) {
+        int i = SkipBlanks(str, 0);
+        int end = NumberEnd(str, i);
+        if (end == i) { return 0; }
+        boolean negative = false;
+        if (str.charAt(i) == '+' || str.charAt(i) == '-') {
+            negative = str.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = str.charAt(i);
+            if (c == '.') {
+                fraction = true;
+            } else if (c >= '0' && c <= '9') {
+                if (digits == 0 && c == '0') { // leading zeros do not count towards the digits that have to fit
+                    if (fraction) { fractionDigits++; }
+                    continue;
+                }
+                if (digits >= 18) { return Double.parseDouble(str.substring(SkipBlanks(str, 0), end)); } // too many digits for the fast path
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) { fractionDigits++; }
+            } else { // an exponent, which the fast path does not handle
+                return Double.parseDouble(str.substring(SkipBlanks(str, 0), end));
+            }
+        }
+        double value;
+        if (fractionDigits == 0) {
+            value = mantissa;
+        } else if (mantissa < MAX_EXACT && fractionDigits < POWERS_OF_TEN.length) { // both numbers are exact so one division rounds correctly
+            value = mantissa / POWERS_OF_TEN[fractionDigits];
+        } else {
+            return Double.parseDouble(str.substring(SkipBlanks(str, 0), end));
+        }
+        return negative ? -value : value;
+    }
+
+    /*
+     * This method is used to return the whole number at the front of the
+     * string, or NOT_INTEGER if the number there has a fraction, an exponent
+     * or more than 18 digits (or there is no number at all).
+     *
+     * @return long
+     */
+    static long ParseInteger(String str) {
+        int length = str.length();
+        int i = SkipBlanks(str, 0);
+        boolean negative = false;
+        if (i < length && (str.charAt(i) == '+' || str.charAt(i) == '-')) {
+            negative = str.charAt(i) == '-';
+            i++;
+        }
+        int start = i;
+        long value = 0;
+        while (i < length && IsDigit(str.charAt(i))) {
+            if (i - start >= 18) { return NOT_INTEGER; }
+            value = value * 10 + (str.charAt(i) - '0');
+            i++;
+        }
+        if (i == start) { return NOT_INTEGER; }
+        if (i < length && (str.charAt(i) == '.' || str.charAt(i) == 'e' || str.charAt(i) == 'E')) { return NOT_INTEGER; }
+        return negative ? -value : value;
+    }
+
+    /*
+     * This method is used to tell if the whole string is a number
+     * with nothing but blanks in front of it and after it.
+     *
+     * @return boolean
+     */
+    static boolean LooksNumeric(String str) {
+        int start = SkipBlanks(str, 0);
+        int end = NumberEnd(str, start);
+        return end > start && SkipBlanks(str, end) == str.length();
+    }
+
+    // returns where the number starting at start ends, or start if there is no number there
+    private static int NumberEnd(String str, int start) {
+        int length = str.length();
+        int i = start;
+        if (i < length && (str.charAt(i) == '+' || str.charAt(i) == '-')) { i++; }
+        int digits = 0;
+        while (i < length && IsDigit(str.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && str.charAt(i) == '.') {
+            i++;
+            while (i < length && IsDigit(str.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) { return start; }
+        if (i < length && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) { // the exponent only counts if it has digits
+            int exponent = i + 1;
+            if (exponent < length && (str.charAt(exponent) == '+' || str.charAt(exponent) == '-')) { exponent++; }
+            if (exponent < length && IsDigit(str.charAt(exponent))) {
+                i = exponent;
+                while (i < length && IsDigit(str.charAt(i))) { i++; }
+            }
+        }
+        return i;
+    }
+
+    private static int SkipBlanks(String str, int i) {
+        while (i < str.length() && (str.charAt(i) == ' ' || str.charAt(i) == '\t' || str.charAt(i) == '\n')) { i++; }
+        return i;
+    }
+
+    private static boolean IsDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
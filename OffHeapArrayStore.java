@@ -0,0 +1,285 @@
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The OffHeapArrayStore class which implements an ArrayStore as an open
+ * addressing hash table kept in direct ByteBuffers, so huge arrays do not
+ * cost a HashMap entry, a key String and a value object on the heap for every
+ * element and the garbage collector never has to look at them.
+ *
+ * Each element is one record appended to a chunk of memory:
+ *   hash (int), key length (int), value length in bytes (int), value tag (byte),
+ *   the key as chars, then the value as a long, a double, chars or nothing
+ * The slots of the table hold the address of a record (the chunk in the high
+ * 32 bits and the position in the low 32) plus one, so 0 is an empty slot, and
+ * -1 marks a deleted one. A value that is stored again with the same length,
+ * which is what counting into an array does, is written over the old one. Any
+ * other change appends a new record, and the chunks are compacted once more
+ * of them is garbage than is in use.
+ *
+ * Values made from numbers are stored as numbers and come back as new values
+ * (small whole numbers come back as the shared ones). The tag of a string says
+ * whether it is a plain string like a string constant, a strnum that compares as
+ * a number, or the value of something never set, and a string comes back as the
+ * same kind, so a value read back compares exactly like the one that was stored.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class OffHeapArrayStore implements ArrayStore {
+    private static final int FIRST_CHUNK = 1 << 16;
+    private static final int MAX_CHUNK = 1 << 26;
+    private static final int FIRST_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 27;    // the most slots one direct buffer can hold
+    private static final int HEADER = 13;
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+    private static final byte INTEGER = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte STRING = 2;   // a string that is never compared as a number
+    private static final byte STRNUM = 3;   // a string that looks like a number, like a field can be
+    private static final byte UNSET = 4;    // the value of anything never set, stored without chars
+
+    private LongBuffer slots;
+    private int capacity;           // always a power of two
+    private int size = 0;
+    private int deleted = 0;        // slots marked deleted, they still count towards the load of the table
+    private ArrayList<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;     // the chunk new records are appended to
+    private long liveBytes = 0;
+    private long garbageBytes = 0;  // bytes of records that were replaced or removed
+
+    public OffHeapArrayStore() {
+        AllocateSlots(FIRST_CAPACITY);
+    }
+
+    public InterpreterDataType Get(String key) {
+        int slot = FindSlot(key, Hash(key));
+        if (slot < 0) { return null; }
+        long address = slots.get(slot) - 1;
+        ByteBuffer chunk = Chunk(address);
+        int position = (int) address;
+        int valueStart = position + HEADER + 2 * chunk.getInt(position + 4);
+        byte tag = chunk.get(position + 12);
+        if (tag == INTEGER) {
+            return InterpreterDataType.Of(chunk.getLong(valueStart));
+        } else if (tag == DOUBLE) {
+            return new InterpreterDataType(chunk.getDouble(valueStart));
+        } else if (tag == UNSET) {
+            return InterpreterDataType.EMPTY;
+        }
+        String str = ReadChars(chunk, valueStart, chunk.getInt(position + 8) / 2);
+        return tag == STRING ? InterpreterDataType.OfString(str) : new InterpreterDataType(str);
+    }
+
+    public void Put(String key, InterpreterDataType value) {
+        int hash = Hash(key);
+        int slot = FindSlot(key, hash);
+        byte tag = Tag(value);
+        String str = tag == STRING || tag == STRNUM ? value.getStr() : null;
+        int valueBytes = str != null ? 2 * str.length() : tag == UNSET ? 0 : 8;
+        if (slot >= 0) {
+            long address = slots.get(slot) - 1;
+            ByteBuffer chunk = Chunk(address);
+            int position = (int) address;
+            if (chunk.getInt(position + 8) == valueBytes) { // the new value fits where the old one was
+                WriteValue(chunk, position, position + HEADER + 2 * key.length(), tag, value, str);
+                return;
+            }
+            Discard(address);
+            slots.put(slot, Append(key, hash, tag, value, str, valueBytes) + 1);
+        } else {
+            slot = ~slot;
+            if (slots.get(slot) == DELETED) { deleted--; }
+            slots.put(slot, Append(key, hash, tag, value, str, valueBytes) + 1);
+            size++;
+            if ((size + deleted) * 4L >= capacity * 3L) { Rehash(); }
+        }
+        if (garbageBytes > liveBytes && garbageBytes > FIRST_CHUNK) { Compact(); }
+    }
+
+    public void Remove(String key) {
+        int slot = FindSlot(key, Hash(key));
+        if (slot < 0) { return; }
+        Discard(slots.get(slot) - 1);
+        slots.put(slot, DELETED);
+        size--;
+        deleted++;
+    }
+
+    public int Size() {
+        return size;
+    }
+
+    public List<String> Keys() {
+        List<String> keys = new ArrayList<>(size);
+        for (int i = 0; i < capacity; i++) {
+            long entry = slots.get(i);
+            if (entry == EMPTY || entry == DELETED) { continue; }
+            ByteBuffer chunk = Chunk(entry - 1);
+            int position = (int) (entry - 1);
+            keys.add(ReadChars(chunk, position + HEADER, chunk.getInt(position + 4)));
+        }
+        return keys;
+    }
+
+    /*
+     * This method is used to find the slot holding the key. It returns the slot,
+     * or if the key is not there the slot it should go in with its bits flipped
+     * (so the result is negative), reusing the first deleted slot it passed.
+     *
+     * @return int
+     */
+    private int FindSlot(String key, int hash) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        int firstDeleted = -1;
+        while (true) {
+            long entry = slots.get(slot);
+            if (entry == EMPTY) { return ~(firstDeleted >= 0 ? firstDeleted : slot); }
+            if (entry == DELETED) {
+                if (firstDeleted < 0) { firstDeleted = slot; }
+            } else if (KeyMatches(entry - 1, key, hash)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean KeyMatches(long address, String key, int hash) {
+        ByteBuffer chunk = Chunk(address);
+        int position = (int) address;
+        if (chunk.getInt(position) != hash || chunk.getInt(position + 4) != key.length()) { return false; }
+        int keyStart = position + HEADER;
+        for (int i = 0; i < key.length(); i++) {
+            if (chunk.getChar(keyStart + 2 * i) != key.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    // appends a record for the key and value and returns its address
+    private long Append(String key, int hash, byte tag, InterpreterDataType value, String str, int valueBytes) {
+        int recordSize = HEADER + 2 * key.length() + valueBytes;
+        long address = Reserve(recordSize);
+        ByteBuffer chunk = Chunk(address);
+        int position = (int) address;
+        chunk.putInt(position, hash);
+        chunk.putInt(position + 4, key.length());
+        chunk.putInt(position + 8, valueBytes);
+        int keyStart = position + HEADER;
+        for (int i = 0; i < key.length(); i++) {
+            chunk.putChar(keyStart + 2 * i, key.charAt(i));
+        }
+        WriteValue(chunk, position, keyStart + 2 * key.length(), tag, value, str);
+        liveBytes += recordSize;
+        return address;
+    }
+
+    private static void WriteValue(ByteBuffer chunk, int position, int valueStart, byte tag, InterpreterDataType value, String str) {
+        chunk.put(position + 12, tag);
+        if (tag == INTEGER) {
+            chunk.putLong(valueStart, value.getInteger());
+        } else if (tag == DOUBLE) {
+            chunk.putDouble(valueStart, value.getNum());
+        } else if (str != null) {
+            for (int i = 0; i < str.length(); i++) {
+                chunk.putChar(valueStart + 2 * i, str.charAt(i));
+            }
+        }
+    }
+
+    // returns the address of room for a record, starting a new chunk when the current one is full
+    private long Reserve(int recordSize) {
+        if (current == null || current.remaining() < recordSize) {
+            int chunkSize = current == null ? FIRST_CHUNK : Math.min(MAX_CHUNK, current.capacity() * 2);
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, recordSize));
+            chunks.add(current);
+        }
+        int position = current.position();
+        current.position(position + recordSize);
+        return ((long) (chunks.size() - 1) << 32) | position;
+    }
+
+    // counts the record at the address as garbage
+    private void Discard(long address) {
+        int recordSize = RecordSize(Chunk(address), (int) address);
+        liveBytes -= recordSize;
+        garbageBytes += recordSize;
+    }
+
+    // doubles the table if it is getting full of elements, or just clears out the deleted slots if not
+    private void Rehash() {
+        LongBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        int newCapacity = capacity;
+        while (size * 2L >= newCapacity && newCapacity < MAX_CAPACITY) { newCapacity *= 2; }
+        if (newCapacity == capacity && deleted == 0) { throw new IllegalStateException("Too many keys to store off the heap: OffHeapArrayStore<Rehash>"); }
+        AllocateSlots(newCapacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long entry = oldSlots.get(i);
+            if (entry == EMPTY || entry == DELETED) { continue; }
+            int slot = Chunk(entry - 1).getInt((int) (entry - 1)) & mask;
+            while (slots.get(slot) != EMPTY) { slot = (slot + 1) & mask; }
+            slots.put(slot, entry);
+        }
+        deleted = 0;
+    }
+
+    // copies the records that are still in use into new chunks so the garbage is freed
+    private void Compact() {
+        ArrayList<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        current = null;
+        for (int i = 0; i < capacity; i++) {
+            long entry = slots.get(i);
+            if (entry == EMPTY || entry == DELETED) { continue; }
+            ByteBuffer oldChunk = oldChunks.get((int) ((entry - 1) >>> 32));
+            int oldPosition = (int) (entry - 1);
+            int recordSize = RecordSize(oldChunk, oldPosition);
+            long address = Reserve(recordSize);
+            Chunk(address).put((int) address, oldChunk, oldPosition, recordSize);
+            slots.put(i, address + 1);
+        }
+        garbageBytes = 0;
+    }
+
+    private void AllocateSlots(int newCapacity) {
+        capacity = newCapacity;
+        slots = ByteBuffer.allocateDirect(newCapacity * 8).asLongBuffer();
+    }
+
+    private ByteBuffer Chunk(long address) {
+        return chunks.get((int) (address >>> 32));
+    }
+
+    private static int RecordSize(ByteBuffer chunk, int position) {
+        return HEADER + 2 * chunk.getInt(position + 4) + chunk.getInt(position + 8);
+    }
+
+    private static String ReadChars(ByteBuffer chunk, int start, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = chunk.getChar(start + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    private static byte Tag(InterpreterDataType value) {
+        if (value.IsNumber()) { return value.IsInteger() ? INTEGER : DOUBLE; }
+        if (!value.IsNumeric()) { return STRING; }
+        return value.getStr().isEmpty() ? UNSET : STRNUM;  // only an unset value is both "" and a number
+    }
+
+    // spreads the bits of the string hash so neighbouring keys do not land in neighbouring slots
+    private static int Hash(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapArrayStore: " + size + " keys in " + chunks.size() + " chunks";
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * The OutputManager class which every output builtin writes through.
+ * Output is collected in one large buffer and only written out when the
+ * program exits, before getline reads input, or when fflush() is called,
+ * instead of once per print statement.
+ *
+ * Redirected output (print > file, print >> file and print | "cmd") goes
+ * through a cache of open buffered writers keyed by the destination name.
+ * At most MAX_OPEN_HANDLES are kept open, when the cache is full the least
+ * recently used file is closed and is appended to if it is written to again.
+ * Once the program calls close() on a file, the next > truncates it again.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class OutputManager {
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int MAX_OPEN_HANDLES = 64;
+    private Writer writer;
+    private Charset charset;
+    private LinkedHashMap<String, OutputHandle> handles = new LinkedHashMap<>(16, 0.75f, true);
+    private HashSet<String> truncatedFiles = new HashSet<>();  // files > opened that are not closed yet, an evicted one is appended to when it is opened again
+
+    /*
+     * An open file or pipe that output is redirected to.
+     */
+    private static class OutputHandle {
+        Writer writer;
+        Process process;    // null when the handle is a file
+
+        OutputHandle(Writer writer, Process process) {
+            this.writer = writer;
+            this.process = process;
+        }
+
+        // closes the writer and, for a pipe, waits for the command to finish and returns its exit status
+        int Close() throws IOException {
+            writer.close();
+            if (process == null) { return 0; }
+            try {
+                return process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    public OutputManager() {
+        this(Charset.defaultCharset());
+    }
+
+    public OutputManager(Charset charset) {
+        this.charset = charset;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), charset), BUFFER_SIZE);
+    }
+
+    public OutputManager(Writer outputWriter) {
+        this.charset = Charset.defaultCharset();
+        this.writer = new BufferedWriter(outputWriter, BUFFER_SIZE);
+    }
+
+    /*
+     * This method is used to add a string to the output buffer.
+     */
+    void Print(String str) {
+        try {
+            writer.write(str);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing output: OutputManager<Print>", e);
+        }
+    }
+
+    /*
+     * This method is used to write a string to a redirected destination,
+     * where redirect is one of ">", ">>" or "|".
+     */
+    void Print(String str, String redirect, String destination) {
+        try {
+            GetHandle(redirect, destination).writer.write(str);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing to " + destination + ": OutputManager<Print>", e);
+        }
+    }
+
+    // returns the open handle for the destination, opening it (and closing the least recently used file if needed) when it is not open
+    private OutputHandle GetHandle(String redirect, String destination) throws IOException {
+        OutputHandle handle = handles.get(destination);
+        if (handle != null) { return handle; }
+        if (handles.size() >= MAX_OPEN_HANDLES) { EvictFile(); }
+        if (redirect.equals("|")) {
+            writer.flush(); // keeps what was printed before the command starts in order
+            ProcessBuilder processBuilder = new ProcessBuilder("sh", "-c", destination);
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+            processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            Process process = processBuilder.start();
+            handle = new OutputHandle(new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), charset), BUFFER_SIZE), process);
+        } else {
+            boolean append = redirect.equals(">>") || truncatedFiles.contains(destination); // > does not truncate a file that was only evicted
+            truncatedFiles.add(destination);
+            handle = new OutputHandle(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(destination, append), charset), BUFFER_SIZE), null);
+        }
+        handles.put(destination, handle);
+        return handle;
+    }
+
+    // closes the least recently used file, pipes are left open since closing them would end the command early
+    private void EvictFile() throws IOException {
+        Iterator<Map.Entry<String, OutputHandle>> iterator = handles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            OutputHandle handle = iterator.next().getValue();
+            if (handle.process == null) {
+                handle.Close();
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    /*
+     * This method is used to close a redirected destination. It returns the exit
+     * status of a pipe, 0 for a file, or -1 if the destination was not open.
+     *
+     * @return int
+     */
+    int Close(String destination) {
+        truncatedFiles.remove(destination);  // the next > opens it afresh
+        OutputHandle handle = handles.remove(destination);
+        if (handle == null) { return -1; }
+        try {
+            writer.flush();
+            return handle.Close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error closing " + destination + ": OutputManager<Close>", e);
+        }
+    }
+
+    /*
+     * This method is used to write everything in the output buffers out.
+     */
+    void Flush() {
+        try {
+            writer.flush();
+            for (OutputHandle handle : handles.values()) {
+                handle.writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing output: OutputManager<Flush>", e);
+        }
+    }
+
+    /*
+     * This method is used to flush standard output and close every
+     * redirected file and pipe when the program exits.
+     */
+    void CloseAll() {
+        try {
+            writer.flush();
+            for (OutputHandle handle : handles.values()) {
+                handle.Close();
+            }
+            handles.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing output: OutputManager<CloseAll>", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OutputManager: " + handles.keySet();
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+ * The ParallelAnalyzer class which checks if the main rules of a program can be run
+ * on several records at the same time. A program qualifies when its main rules only
+ * read variables, only assign to fields of the current record, only print to standard
+ * output, only call builtins that do not change anything (so no getline, next, split or
+ * user functions), and otherwise only update arrays in a way that can be merged:
+ *   - SUM for arr[k] += x, arr[k] -= x, arr[k]++, arr[k]-- and ++arr[k], --arr[k]
+ *   - MAX for if (x > arr[k]) arr[k] = x
+ *   - MIN for if (x < arr[k]) arr[k] = x
+ * Arrays updated like this can not be read anywhere else in the main rules.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class ParallelAnalyzer {
+    private static final Set<String> PURE_FUNCTIONS = Set.of("length", "substr", "index", "tolower", "toupper", "match", "sub", "gsub");
+
+    enum AggregateKind {
+        SUM, MIN, MAX
+    }
+
+    private HashMap<String, AggregateKind> aggregates = new HashMap<>();
+    private IdentityHashMap<Node, List<Node>> updates = new IdentityHashMap<>();   // each array update and the key and value expressions it reads
+
+    /*
+     * This method is used to find out if the main rules of the program can be run
+     * on several records at once. It returns the arrays the main rules aggregate into
+     * and how to merge each of them (empty if they keep no state at all), or null if
+     * the main rules have to be run one record at a time.
+     *
+     * @return HashMap<String, AggregateKind>
+     */
+    static HashMap<String, AggregateKind> FindAggregates(Parser.ProgramNode programNode) {
+        if (programNode.getOtherBlockNodes().isEmpty()) { return null; }
+        ParallelAnalyzer analyzer = new ParallelAnalyzer();
+        for (BlockNode block : programNode.getOtherBlockNodes()) {
+            if (block.getCondition() != null && block.getCondition().isPresent() && !analyzer.IsPure(block.getCondition().get())) { return null; }
+            if (!analyzer.IsPure(block)) { return null; }
+        }
+        for (BlockNode block : programNode.getOtherBlockNodes()) { // arrays that are aggregated into can not be read while the records are running
+            if (block.getCondition() != null && block.getCondition().isPresent() && analyzer.ReadsAggregate(block.getCondition().get())) { return null; }
+            if (analyzer.ReadsAggregate(block)) { return null; }
+        }
+        return analyzer.aggregates;
+    }
+
+    private boolean IsPure(Node node) {
+        if (node == null || node instanceof ConstantNode || node instanceof PatternNode || node instanceof BreakNode || node instanceof ContinueNode) {
+            return true;
+        } else if (node instanceof AssignmentNode aNode) { // only assignments to fields of the current record and array updates are allowed
+            if (IsAggregateUpdate(aNode)) { return true; }
+            if (!(aNode.getTarget() instanceof OperationNode target) || target.thisEnum != OperationNode.OperationList.DOLLAR) { return false; }
+            if (aNode.getExpression() instanceof OperationNode expression && expression.thisEnum == OperationNode.OperationList.ASSIGN) {
+                return IsPure(target.getLeft()) && IsPure(expression.getRight().orElse(null));
+            }
+            return IsPure(target.getLeft()) && IsPure(aNode.getExpression());
+        } else if (node instanceof OperationNode opNode && opNode.thisEnum == OperationNode.OperationList.ASSIGN) {
+            return false;
+        } else if (node instanceof FunctionCallNode fNode) {
+            Token.TokenType type = fNode.functionName.getTokenType();
+            boolean print = type == Token.TokenType.PRINT || type == Token.TokenType.PRINTF;
+            if (print && fNode.getRedirectTarget() != null) { return false; }
+            if (!print && (type != Token.TokenType.WORD || !PURE_FUNCTIONS.contains(fNode.getName()))) { return false; }
+        } else if (node instanceof IfNode ifNode) {
+            if (IsAggregateUpdate(ifNode)) { return true; }
+        } else if (!(node instanceof VariableReferenceNode || node instanceof OperationNode || node instanceof MathOpNode || node instanceof TernaryNode
+                || node instanceof BlockNode || node instanceof WhileNode || node instanceof DoWhileNode || node instanceof ForNode)) {
+            return false;   // deletes, returns, for each loops and anything unknown are assumed to keep state
+        }
+        for (Node child : Children(node)) {
+            if (!IsPure(child)) { return false; }
+        }
+        return true;
+    }
+
+    // checks for arr[k] += x, arr[k] -= x and the increments and decrements of arr[k]
+    private boolean IsAggregateUpdate(AssignmentNode aNode) {
+        if (!(aNode.getTarget() instanceof VariableReferenceNode target) || target.getExpression() == null || target.getExpression().isEmpty()) { return false; }
+        if (!(aNode.getExpression() instanceof OperationNode opNode) || !SameNode(opNode.getLeft(), target)) { return false; }
+        OperationNode.OperationList operation = opNode.thisEnum;
+        List<Node> operands = new ArrayList<>();
+        operands.add(target.getExpression().get());
+        if (operation == OperationNode.OperationList.ADD || operation == OperationNode.OperationList.SUBTRACT) {
+            if (opNode.getRight() == null || opNode.getRight().isEmpty()) { return false; }
+            operands.add(opNode.getRight().get());
+        } else if (operation != OperationNode.OperationList.PREINC && operation != OperationNode.OperationList.POSTINC
+                && operation != OperationNode.OperationList.PREDEC && operation != OperationNode.OperationList.POSTDEC) {
+            return false;
+        }
+        return AddUpdate(aNode, target.getName(), AggregateKind.SUM, operands);
+    }
+
+    // checks for if (x > arr[k]) arr[k] = x and the other ways of writing a running maximum or minimum
+    private boolean IsAggregateUpdate(IfNode ifNode) {
+        if (ifNode.getNext() != null || ifNode.getBlockNode().getStatement().size() != 1) { return false; }
+        if (!(ifNode.getCondition() instanceof OperationNode condition) || condition.getRight() == null || condition.getRight().isEmpty()) { return false; }
+        if (!(ifNode.getBlockNode().getStatement().getFirst() instanceof AssignmentNode aNode)) { return false; }
+        if (!(aNode.getTarget() instanceof VariableReferenceNode target) || target.getExpression() == null || target.getExpression().isEmpty()) { return false; }
+        if (!(aNode.getExpression() instanceof OperationNode assign) || assign.thisEnum != OperationNode.OperationList.ASSIGN || assign.getRight().isEmpty()) { return false; }
+        Node value = assign.getRight().get();
+        boolean greater = condition.thisEnum == OperationNode.OperationList.GT || condition.thisEnum == OperationNode.OperationList.GE;
+        boolean less = condition.thisEnum == OperationNode.OperationList.LT || condition.thisEnum == OperationNode.OperationList.LE;
+        if (!greater && !less) { return false; }
+        AggregateKind kind;
+        if (SameNode(condition.getLeft(), value) && SameNode(condition.getRight().get(), target)) { // x > arr[k]
+            kind = greater ? AggregateKind.MAX : AggregateKind.MIN;
+        } else if (SameNode(condition.getLeft(), target) && SameNode(condition.getRight().get(), value)) { // arr[k] < x
+            kind = greater ? AggregateKind.MIN : AggregateKind.MAX;
+        } else {
+            return false;
+        }
+        return AddUpdate(ifNode, target.getName(), kind, List.of(target.getExpression().get(), value));
+    }
+
+    // records an array update, an array can only be aggregated one way and its key and value can not change anything
+    private boolean AddUpdate(Node update, String array, AggregateKind kind, List<Node> operands) {
+        if (aggregates.containsKey(array) && aggregates.get(array) != kind) { return false; }
+        for (Node operand : operands) {
+            if (!IsPure(operand)) { return false; }
+        }
+        aggregates.put(array, kind);
+        updates.put(update, operands);
+        return true;
+    }
+
+    private boolean ReadsAggregate(Node node) {
+        if (node == null) { return false; }
+        List<Node> children = updates.containsKey(node) ? updates.get(node) : Children(node);
+        if (!updates.containsKey(node) && node instanceof VariableReferenceNode vNode && aggregates.containsKey(vNode.getName())) { return true; }
+        for (Node child : children) {
+            if (ReadsAggregate(child)) { return true; }
+        }
+        return false;
+    }
+
+    // nodes are the same if they print the same, since the parser does not share nodes between arr[k] and arr[k] += x written out in full
+    private static boolean SameNode(Node first, Node second) {
+        return first == second || (first != null && second != null && first.toString().equals(second.toString()));
+    }
+
+    // returns the nodes directly inside of a node
+    private static List<Node> Children(Node node) {
+        List<Node> children = new ArrayList<>();
+        if (node instanceof VariableReferenceNode vNode) {
+            AddChild(children, vNode.getExpression());
+        } else if (node instanceof OperationNode opNode) {
+            children.add(opNode.getLeft());
+            AddChild(children, opNode.getRight());
+        } else if (node instanceof MathOpNode mathNode) {
+            children.add(mathNode.left);
+            AddChild(children, mathNode.right);
+        } else if (node instanceof TernaryNode tNode) {
+            children.add(tNode.checkCase);
+            AddChild(children, tNode.trueCase);
+            AddChild(children, tNode.falseCase);
+        } else if (node instanceof AssignmentNode aNode) {
+            children.add(aNode.getTarget());
+            children.add(aNode.getExpression());
+        } else if (node instanceof FunctionCallNode fNode) {
+            children.addAll(fNode.parameters);
+            children.add(fNode.getRedirectTarget());
+        } else if (node instanceof BlockNode block) {
+            children.addAll(block.getStatement());
+        } else if (node instanceof IfNode ifNode) {
+            children.add(ifNode.getCondition());
+            children.add(ifNode.getBlockNode());
+            children.add(ifNode.getNext());
+        } else if (node instanceof WhileNode whileNode) {
+            children.add(whileNode.getCondition());
+            children.add(whileNode.getBlockNode());
+        } else if (node instanceof DoWhileNode doWhileNode) {
+            children.add(doWhileNode.getCondition());
+            children.add(doWhileNode.getBlockNode());
+        } else if (node instanceof ForNode forNode) {
+            children.add(forNode.getCondition1());
+            children.add(forNode.getCondition2());
+            children.add(forNode.getCondition3());
+            children.add(forNode.getBlockNode());
+        } else if (node instanceof ForEachNode forEachNode) {
+            children.add(forEachNode.getCondition1());
+            children.add(forEachNode.getBlockNode());
+        } else if (node instanceof DeleteNode deleteNode) {
+            children.add(deleteNode.getCondition());
+        } else if (node instanceof ReturnNode returnNode) {
+            children.add(returnNode.getStatement());
+        }
+        return children;
+    }
+
+    private static void AddChild(List<Node> children, Optional<Node> child) {
+        if (child != null && child.isPresent()) { children.add(child.get()); }
+    }
+}
@@ -15,12 +15,14 @@ import java.util.Optional;
  */
 public class Parser {
     private TokenManager tokenManager;
+    private boolean allowGreaterThan = true;    // false while parsing print arguments, where > starts an output redirection
 
     public static class ProgramNode {
         private List<BlockNode> beginBlockNodes;
         private List<BlockNode> endBlockNodes;
         private List<BlockNode> otherBlockNodes;
         private List<FunctionDefinitionNode> functionNodes;
+        private List<String> globalNames = new ArrayList<>();  // the name of each global slot, filled in by the VariableResolver
 
         public ProgramNode () {
             this.beginBlockNodes = new ArrayList<>();
@@ -37,6 +39,8 @@ public class Parser {
 
         List<FunctionDefinitionNode> getFunctionNodes() { return functionNodes; }
 
+        List<String> getGlobalNames() { return globalNames; }
+
         void addFunctionNode(FunctionDefinitionNode functionDefinitionNode) {
             functionNodes.add(functionDefinitionNode);
         }
@@ -97,16 +101,14 @@ public class Parser {
                     }
                     AcceptSeperators();
 
-                    if (tokenManager.MatchAndRemove(Token.TokenType.OPENCURLYBRACKET).isPresent()) {
+                    Optional<Token> next = tokenManager.Peek(0);
+                    if (next.isPresent() && next.get().getTokenType() == Token.TokenType.OPENCURLYBRACKET) { // ParseBlock takes the curly brackets itself
+                        FunctionDefinitionNode newFunctionDefinitionNode = new FunctionDefinitionNode(functionName, parameters);
+                        BlockNode blockNode = ParseBlock();
+                        newFunctionDefinitionNode.statementNodesMutator(blockNode.getStatement());
+                        programNode.functionNodes.add(newFunctionDefinitionNode);
                         AcceptSeperators();
-                        if (tokenManager.MatchAndRemove(Token.TokenType.CLOSECURLYBRACKET).isPresent()) {
-                            FunctionDefinitionNode newFunctionDefinitionNode = new FunctionDefinitionNode(functionName, parameters);
-                            BlockNode blockNode = ParseBlock();
-                            newFunctionDefinitionNode.statementNodesMutator(blockNode.getStatement());
-                            programNode.functionNodes.add(newFunctionDefinitionNode);
-                            AcceptSeperators();
-                            return true;
-                        } else { return false; }
+                        return true;
                     }
                 }
             }
@@ -127,13 +129,18 @@ public class Parser {
                 programNode.endBlockNodes.add(endBlock);
                 AcceptSeperators();
                 return true;
-            } else {
-                Optional<Node> parseOperation = ParseOperation();
+            } else if (tokenManager.MoreTokens()) {
+                Optional<Node> parseOperation = Optional.empty();
+                if (tokenManager.Peek(0).get().getTokenType() != Token.TokenType.OPENCURLYBRACKET) { // action has a pattern in front of it
+                    parseOperation = ParseOperation();
+                }
                 BlockNode otherBlock = ParseBlock();
                 if (parseOperation.isPresent()) { otherBlock.setCondition(parseOperation); }
                 programNode.otherBlockNodes.add(otherBlock);
-                return false;
+                AcceptSeperators();
+                return true;
             }
+            return true;
         }
         return false;
     }
@@ -215,17 +222,24 @@ public class Parser {
                 if (parseOP.isEmpty()) {
                     throw new Exception("parseOP is empty: ParseFunctionCall<PRINT>");
                 }
-                parameters.add(parseOP.get());
                 if (tokenManager.MatchAndRemove(Token.TokenType.CLOSEROUNDBRACKET).isPresent()) {
-                    AcceptSeperators();
-                    return Optional.of(new FunctionCallNode(token.get(), parameters));
+                    while (StartsConcatenation()) { // print (a) b prints the bracket concatenated with what follows it
+                        parseOP = Optional.of(new OperationNode(parseOP.get(), ParseMathOperations(), OperationNode.OperationList.CONCATENATION));
+                    }
+                    parameters.add(parseOP.get());
+                    return Optional.of(ParseRedirection(token.get(), parameters));
                 }
-            } else {
-                Optional<Node> parseOP = ParseOperation();
-                if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<PRINT>"); }
                 parameters.add(parseOP.get());
-                AcceptSeperators();
-                return Optional.of(new FunctionCallNode(token.get(), parameters));
+            } else {
+                if (!IsPrintEnd()) {
+                    boolean previousAllowGreaterThan = allowGreaterThan;
+                    allowGreaterThan = false;
+                    Optional<Node> parseOP = ParseOperation();
+                    allowGreaterThan = previousAllowGreaterThan;
+                    if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<PRINT>"); }
+                    parameters.add(parseOP.get());
+                }
+                return Optional.of(ParseRedirection(token.get(), parameters));
             }
         } else if (curr.isPresent() && curr.get().getTokenType() == Token.TokenType.PRINTF) { // parses printf call
             Optional<Token> token = tokenManager.MatchAndRemove(Token.TokenType.PRINTF);
@@ -237,15 +251,18 @@ public class Parser {
                 }
                 parameters.add(parseOP.get());
                 if (tokenManager.MatchAndRemove(Token.TokenType.CLOSEROUNDBRACKET).isPresent()) {
-                    AcceptSeperators();
-                    return Optional.of(new FunctionCallNode(token.get(), parameters));
+                    return Optional.of(ParseRedirection(token.get(), parameters));
                 }
             } else {
-                Optional<Node> parseOP = ParseOperation();
-                if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<PRINTF>"); }
-                parameters.add(parseOP.get());
-                AcceptSeperators();
-                return Optional.of(new FunctionCallNode(token.get(), parameters));
+                if (!IsPrintEnd()) {
+                    boolean previousAllowGreaterThan = allowGreaterThan;
+                    allowGreaterThan = false;
+                    Optional<Node> parseOP = ParseOperation();
+                    allowGreaterThan = previousAllowGreaterThan;
+                    if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<PRINTF>"); }
+                    parameters.add(parseOP.get());
+                }
+                return Optional.of(ParseRedirection(token.get(), parameters));
             }
         } else if (curr.isPresent() && curr.get().getTokenType() == Token.TokenType.EXIT) { // parses exit call
             Optional<Token> token = tokenManager.MatchAndRemove(Token.TokenType.EXIT);
@@ -259,9 +276,12 @@ public class Parser {
                     return Optional.of(new FunctionCallNode(token.get(), parameters));
                 }
             } else {
-                Optional<Node> parseOP = ParseOperation();
-                if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<EXIT>"); }
-                parameters.add(parseOP.get());
+                Optional<Token> next = tokenManager.Peek(0);
+                if (next.isPresent() && next.get().getTokenType() != Token.TokenType.SEPERATOR && next.get().getTokenType() != Token.TokenType.CLOSECURLYBRACKET) { // exit on its own leaves the status as it is
+                    Optional<Node> parseOP = ParseOperation();
+                    if (parseOP.isEmpty()) { throw new Exception("parseOP is empty: ParseFunctionCall<EXIT>"); }
+                    parameters.add(parseOP.get());
+                }
                 AcceptSeperators();
                 return Optional.of(new FunctionCallNode(token.get(), parameters));
             }
@@ -296,6 +316,33 @@ public class Parser {
         return Optional.empty();
     }
 
+    // checks if print or printf is followed by nothing but a redirection or the end of the statement
+    boolean IsPrintEnd() {
+        Optional<Token> next = tokenManager.Peek(0);
+        if (next.isEmpty()) { return true; }
+        Token.TokenType type = next.get().getTokenType();
+        return type == Token.TokenType.SEPERATOR || type == Token.TokenType.CLOSECURLYBRACKET || type == Token.TokenType.GREATERTHAN
+                || type == Token.TokenType.APPEND || type == Token.TokenType.PIPE;
+    }
+
+    // parses the > file, >> file or | command after print or printf if there is one and returns the FunctionCallNode
+    FunctionCallNode ParseRedirection(Token token, LinkedList<Node> parameters) throws Exception {
+        Optional<Token> redirect = tokenManager.MatchAndRemove(Token.TokenType.GREATERTHAN);
+        if (redirect.isEmpty()) { redirect = tokenManager.MatchAndRemove(Token.TokenType.APPEND); }
+        if (redirect.isEmpty()) { redirect = tokenManager.MatchAndRemove(Token.TokenType.PIPE); }
+        if (redirect.isEmpty()) {
+            AcceptSeperators();
+            return new FunctionCallNode(token, parameters);
+        }
+        boolean previousAllowGreaterThan = allowGreaterThan;
+        allowGreaterThan = false;
+        Optional<Node> target = ParseStringConcatenation();
+        allowGreaterThan = previousAllowGreaterThan;
+        if (target.isEmpty()) { throw new Exception("target is empty: Parser<ParseRedirection>"); }
+        AcceptSeperators();
+        return new FunctionCallNode(token, parameters, redirect.get().getTokenType(), target.get());
+    }
+
     // if it is continue statement, return a new ContinueNode
     Optional<StatementNode> ParseContinue() {
         return Optional.of(new ContinueNode());
@@ -366,6 +413,9 @@ public class Parser {
             if (tokenManager.MatchAndRemove(Token.TokenType.CLOSEROUNDBRACKET).isPresent()) {
                 return Optional.of(new DeleteNode(parseLValue.get()));
             }
+        } else { // delete arr[k] can also be written without the brackets
+            Optional<Node> parseLValue = ParseLValue();
+            if (parseLValue.isPresent()) { return Optional.of(new DeleteNode(parseLValue.get())); }
         }
         return Optional.empty();
     }
@@ -490,7 +540,7 @@ public class Parser {
             return Optional.of(new OperationNode(parseStringCon.get(), ParseStringConcatenation(), OperationNode.OperationList.NE));
         } else if (tokenManager.MatchAndRemove(Token.TokenType.EQUALTO).isPresent()) {
             return Optional.of(new OperationNode(parseStringCon.get(), ParseStringConcatenation(), OperationNode.OperationList.EQ));
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.GREATERTHAN).isPresent()) {
+        } else if (allowGreaterThan && tokenManager.MatchAndRemove(Token.TokenType.GREATERTHAN).isPresent()) {
             return Optional.of(new OperationNode(parseStringCon.get(), ParseStringConcatenation(), OperationNode.OperationList.GT));
         } else if (tokenManager.MatchAndRemove(Token.TokenType.GREATERTHANEQUAL).isPresent()) {
             return Optional.of(new OperationNode(parseStringCon.get(), ParseStringConcatenation(), OperationNode.OperationList.GE));
@@ -500,101 +550,81 @@ public class Parser {
 
     /*
      * Parses all string concatenation statements.
-     * Checks if there are two strings which are beside each other. If this exits, then it creates a new OperationNode
-     * which stores the left node, right node, and the operation type concatenation.
+     * Concatenation has no operator, so while the next token can start another operand it is parsed
+     * and combined left to right into OperationNodes which store the left node, right node, and the
+     * operation type concatenation.
      */
     Optional<Node> ParseStringConcatenation() throws Exception {
-        if (tokenManager.MoreTokens() && tokenManager.Peek(0).isPresent() && tokenManager.Peek(0).get().getTokenType() == Token.TokenType.WORD) {
-            if (tokenManager.MoreTokens() && tokenManager.Peek(1).isPresent() && tokenManager.Peek(1).get().getTokenType() == Token.TokenType.WORD) {
-                Optional<Token> word1 = tokenManager.MatchAndRemove(Token.TokenType.WORD);
-                Optional<Token> word2 = tokenManager.MatchAndRemove(Token.TokenType.WORD);
-                if (word1.isEmpty()) { throw new Exception("First word is empty: Parser<ParseStringConcatenation>"); }
-                if (word2.isEmpty()) { throw new Exception("First word is empty: Parser<ParseStringConcatenation>"); }
-                return Optional.of(new OperationNode(new VariableReferenceNode(word1.get().getTokenValue()), Optional.of(new VariableReferenceNode(word2.get().getTokenValue())), OperationNode.OperationList.CONCATENATION));
-            }
+        Optional<Node> left = ParseMathOperations();
+        while (left.isPresent() && StartsConcatenation()) {
+            left = Optional.of(new OperationNode(left.get(), ParseMathOperations(), OperationNode.OperationList.CONCATENATION));
         }
-//        Optional<Node> parseLeft = ParseMathOperations();
-//        Optional<Node> parseRight = ParseMathOperations();
-//        if (parseLeft.isPresent() && parseRight.isPresent() ) {
-//            if (parseLeft.get() instanceof VariableReferenceNode && parseRight.get() instanceof VariableReferenceNode) {
-//                parseLeft =  Optional.of(new OperationNode(parseLeft.get(), parseRight, OperationNode.OperationList.CONCATENATION));
-//            }
-//        }
-        return ParseMathOperations();
-//        return parseLeft;
+        return left;
     }
 
+    // checks if the next token starts an operand, a word, number, string, field or bracket right after another operand is concatenated to it
+    boolean StartsConcatenation() {
+        Optional<Token> next = tokenManager.Peek(0);
+        if (!tokenManager.MoreTokens() || next.isEmpty()) { return false; }
+        if (tokenManager.LastRemoved() == Token.TokenType.SEPERATOR) { return false; }  // calls like print take the separators after them, so what follows is the next statement
+        Token.TokenType type = next.get().getTokenType();
+        return type == Token.TokenType.WORD || type == Token.TokenType.NUMBER || type == Token.TokenType.STRINGLITERAL
+                || type == Token.TokenType.DOLLAR || type == Token.TokenType.OPENROUNDBRACKET;
+    }
 
     /*
      * Parses all math statement operations.
-     * Gets the left and right expression of the statement and creates a new OperationNode which stores the left node,
+     * Addition and subtraction are the lowest precedence, so the terms on each side are parsed
+     * first and then combined left to right into OperationNodes which store the left node,
      * right node, and the math operation which is being done.
      */
     Optional<Node> ParseMathOperations() throws Exception {
-        Optional<Node> parseExpOP = ParseExponentOperations();
-        if (parseExpOP.isEmpty()) {  return Expression(); }
-        if (tokenManager.MatchAndRemove(Token.TokenType.MINUS).isPresent()) {
-            return Optional.of(new OperationNode(parseExpOP.get(), Expression(), OperationNode.OperationList.SUBTRACT));
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.PLUS).isPresent()) {
-            return Optional.of(new OperationNode(parseExpOP.get(), Expression(), OperationNode.OperationList.ADD));
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.MOD).isPresent()) {
-            return Optional.of(new OperationNode(parseExpOP.get(), Expression(), OperationNode.OperationList.MODULO));
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.DIVIDE).isPresent()) {
-            return Optional.of(new OperationNode(parseExpOP.get(), Expression(), OperationNode.OperationList.DIVIDE));
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.MULTIPLY).isPresent()) {
-            return Optional.of(new OperationNode(parseExpOP.get(), Expression(), OperationNode.OperationList.MULTIPLY));
+        Optional<Node> left = ParseTermOperations();
+        while (true) {
+            if (tokenManager.MatchAndRemove(Token.TokenType.PLUS).isPresent()) {
+                left = Optional.of(new OperationNode(left.get(), ParseTermOperations(), OperationNode.OperationList.ADD));
+            } else if (tokenManager.MatchAndRemove(Token.TokenType.MINUS).isPresent()) {
+                left = Optional.of(new OperationNode(left.get(), ParseTermOperations(), OperationNode.OperationList.SUBTRACT));
+            } else {
+                return left;
+            }
         }
-        return parseExpOP;
     }
 
-    Optional<Node> Factor() throws Exception {
-        Optional<Token> num = tokenManager.MatchAndRemove(Token.TokenType.NUMBER);
-        if (num.isPresent()) { return Optional.of(new ConstantNode(num.get().getTokenValue())); }
-        if (tokenManager.MatchAndRemove(Token.TokenType.OPENROUNDBRACKET).isPresent()) {
-            Optional<Node> exp = Expression();
-            if (exp.isEmpty()) { throw new Exception("exp is null: Factor"); }
-            if (tokenManager.MatchAndRemove(Token.TokenType.CLOSEROUNDBRACKET).isEmpty()) {
-                throw new Exception("Close Round Bracket is missing: Factor");
+    // parses multiply, divide and modulo operations left to right
+    Optional<Node> ParseTermOperations() throws Exception {
+        Optional<Node> left = ParseUnaryOperations();
+        while (true) {
+            if (tokenManager.MatchAndRemove(Token.TokenType.MULTIPLY).isPresent()) {
+                left = Optional.of(new OperationNode(left.get(), ParseUnaryOperations(), OperationNode.OperationList.MULTIPLY));
+            } else if (tokenManager.MatchAndRemove(Token.TokenType.DIVIDE).isPresent()) {
+                left = Optional.of(new OperationNode(left.get(), ParseUnaryOperations(), OperationNode.OperationList.DIVIDE));
+            } else if (tokenManager.MatchAndRemove(Token.TokenType.MOD).isPresent()) {
+                left = Optional.of(new OperationNode(left.get(), ParseUnaryOperations(), OperationNode.OperationList.MODULO));
+            } else {
+                return left;
             }
-            return exp;
         }
-        return Optional.empty();
-
-        // call exponent if its there then return that else return bottom level
-    }
-
-    Optional<Node> Term() throws Exception {
-        Optional<Node> left = Factor();
-        if (left.isEmpty()) { throw new Exception("left is empty: Term"); }
-        do {
-            Optional<Token> op = tokenManager.MatchAndRemove(Token.TokenType.MULTIPLY);
-            if (op.isEmpty()) { op = tokenManager.MatchAndRemove(Token.TokenType.DIVIDE); }
-            if (op.isEmpty()) { op = tokenManager.MatchAndRemove(Token.TokenType.MOD); }
-            if (op.isEmpty()) { return left; }
-            Optional<Node> right = Factor();
-            left = Optional.of(new MathOpNode(left.get(), op, right));
-        } while (true);
     }
 
-    Optional<Node> Expression() throws Exception {
-        Optional<Node> left = Term();
-        if (left.isEmpty()) { throw new Exception("left is empty: Expression"); }
-        do {
-            Optional<Token> op = tokenManager.MatchAndRemove(Token.TokenType.PLUS);
-            if (op.isEmpty()) { op = tokenManager.MatchAndRemove(Token.TokenType.MINUS); }
-            if (op.isEmpty()) { return left; }
-            Optional<Node> right = Term();
-            left = Optional.of(new MathOpNode(left.get(), op, right));
-        } while (true);
+    // parses unary minus, unary plus and not, which keep their operand on the left
+    Optional<Node> ParseUnaryOperations() throws Exception {
+        if (tokenManager.MatchAndRemove(Token.TokenType.MINUS).isPresent()) {
+            return Optional.of(new OperationNode(ParseUnaryOperations().get(), OperationNode.OperationList.UNARYNEG));
+        } else if (tokenManager.MatchAndRemove(Token.TokenType.PLUS).isPresent()) {
+            return Optional.of(new OperationNode(ParseUnaryOperations().get(), OperationNode.OperationList.UNARYPOS));
+        } else if (tokenManager.MatchAndRemove(Token.TokenType.NOT).isPresent()) {
+            return Optional.of(new OperationNode(ParseUnaryOperations().get(), OperationNode.OperationList.NOT));
+        }
+        return ParseExponentOperations();
     }
 
-    // parses all exponent statement operations
+    // parses all exponent statement operations, which group right to left
     Optional<Node> ParseExponentOperations() throws Exception {
         Optional<Node> lvalue = ParseBottomLevel();
         if (lvalue.isEmpty()) { throw new Exception("lvalue is empty: ParseExponentOperations"); }
         if (tokenManager.MatchAndRemove(Token.TokenType.POWER).isPresent()) {
-            Optional<Node> p = ParseOperation();
-            return Optional.of(new OperationNode(lvalue.get(), p, OperationNode.OperationList.EXPONENT));
+            return Optional.of(new OperationNode(lvalue.get(), ParseUnaryOperations(), OperationNode.OperationList.EXPONENT));
         }
         return lvalue;
     }
@@ -612,6 +642,13 @@ public class Parser {
         return lvalue;
     }
 
+    // returns the value of a number literal, whole numbers come from the shared small values when they can
+    static InterpreterDataType NumberValue(String literal) {
+        long integer = NumericScanner.ParseInteger(literal);
+        if (integer != NumericScanner.NOT_INTEGER) { return InterpreterDataType.Of(integer); }
+        return new InterpreterDataType(NumericScanner.ParseNumber(literal));
+    }
+
     // parses all basic bottom level statement operations
     Optional<Node> ParseBottomLevel() throws Exception {
         Optional<Token> curr = tokenManager.Peek(0);
@@ -626,7 +663,7 @@ public class Parser {
         } else if (curr.get().getTokenType() == Token.TokenType.NUMBER) { // NUMBER -> ConstantNode(value)
             tempToken = tokenManager.MatchAndRemove(Token.TokenType.NUMBER);
             if (tempToken.isEmpty()) { throw new Exception("tempToken is empty: ParseBottomLevel"); }
-            ConstantNode cNode = new ConstantNode(tempToken.get().getTokenValue());
+            ConstantNode cNode = new ConstantNode(NumberValue(tempToken.get().getTokenValue()));  // number literals are parsed once here instead of every time they are used
             return Optional.of(cNode);
         } else if (curr.get().getTokenType() == Token.TokenType.REGEX) { // PATTERN -> PatterNode(value)
             tempToken = tokenManager.MatchAndRemove(Token.TokenType.REGEX);
@@ -634,35 +671,23 @@ public class Parser {
             PatternNode pNode = new PatternNode(tempToken.get().getTokenValue());
             return Optional.of(pNode);
         } else if (tokenManager.MatchAndRemove(Token.TokenType.OPENROUNDBRACKET).isPresent()) { // LPAREN ParseOperation() RPAREN -> result of ParseOperation
+            boolean previousAllowGreaterThan = allowGreaterThan;
+            allowGreaterThan = true; // a > inside brackets is always a comparison
             Optional<Node> parseOP = ParseOperation();
+            allowGreaterThan = previousAllowGreaterThan;
             if (parseOP.isEmpty()) { throw new Exception("Brackets: Parse Operation is Empty"); }
             if (tokenManager.MatchAndRemove(Token.TokenType.CLOSEROUNDBRACKET).isPresent()) {
                 return parseOP;
             }
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.NOT).isPresent()) { // NOT ParseOperation() -> Operation(result of ParseOperation, NOT)
-            Optional<Node> parseOP = ParseOperation();
-            if (parseOP.isEmpty()) { throw new Exception("Not: Parse Operation is Empty"); }
-            OperationNode opNode = new OperationNode(parseOP.get(), OperationNode.OperationList.NOT);
-            return Optional.of(opNode);
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.MINUS).isPresent()) { // MINUS ParseOperation() -> Operation(result of ParseOperation, UNARYNEG)
-            Optional<Node> parseOP = ParseOperation();
-            if (parseOP.isEmpty()) { throw new Exception("Minus: Parse Operation is Empty"); }
-            OperationNode opNode = new OperationNode(parseOP.get(), OperationNode.OperationList.UNARYNEG);
-            return Optional.of(opNode);
-        } else if (tokenManager.MatchAndRemove(Token.TokenType.PLUS).isPresent()) { // PLUS ParseOperation() -> Operation(result of ParseOperation, UNARYPOS)
-            Optional<Node> parseOP = ParseOperation();
-            if (parseOP.isEmpty()) { throw new Exception("Plus: Parse Operation is Empty"); }
-            OperationNode opNode = new OperationNode(parseOP.get(), OperationNode.OperationList.UNARYPOS);
-            return Optional.of(opNode);
-        } else if (curr.get().getTokenType() == Token.TokenType.INCREMENTONE) { // INCREMENT ParseOperation() -> Operation(result of ParseOperation, PREINC)
+        } else if (curr.get().getTokenType() == Token.TokenType.INCREMENTONE) { // INCREMENT ParseLValue() -> Operation(result of ParseLValue, PREINC)
             tokenManager.MatchAndRemove(Token.TokenType.INCREMENTONE);
-            Optional<Node> parseOP = ParseOperation();
+            Optional<Node> parseOP = ParseLValue();
             if (parseOP.isEmpty()) { throw new Exception("IncrementOne: Parse Operation is Empty"); }
             AssignmentNode opNode = new AssignmentNode(parseOP.get(), new OperationNode(parseOP.get(), OperationNode.OperationList.PREINC));
             return Optional.of(opNode);
-        } else if (curr.get().getTokenType() == Token.TokenType.DECREMENTONE) { // DECREMENT ParseOperation() -> Operation(result of ParseOperation, PREDEC)
+        } else if (curr.get().getTokenType() == Token.TokenType.DECREMENTONE) { // DECREMENT ParseLValue() -> Operation(result of ParseLValue, PREDEC)
             tokenManager.MatchAndRemove(Token.TokenType.DECREMENTONE);
-            Optional<Node> parseOP = ParseOperation();
+            Optional<Node> parseOP = ParseLValue();
             if (parseOP.isEmpty()) { throw new Exception("DecrementOne: Parse Operation is Empty"); }
             AssignmentNode opNode = new AssignmentNode(parseOP.get(), new OperationNode(parseOP.get(), OperationNode.OperationList.PREDEC));
             return Optional.of(opNode);
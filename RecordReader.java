@@ -0,0 +1,25 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * The RecordReader interface which is implemented by every
+ * source of input records that the LineManager can pull from.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public interface RecordReader extends Closeable {
+
+    /*
+     * This method is used to return the next record from the
+     * input, or null once the input is exhausted.
+     *
+     * @return String
+     */
+    String ReadRecord() throws IOException;
+
+    /*
+     * This method is used to change the record separator
+     * used for the records that are read after it.
+     */
+    void SetRecordSeparator(String rs) throws IOException;
+}
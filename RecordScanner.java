@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * The RecordScanner class which cuts a stream of characters into records
+ * using the record separator RS. The characters are read into a sliding
+ * buffer, records are cut off the front of it and the buffer is only
+ * grown when a single record does not fit, so the whole input is never
+ * held in memory. RS is compiled into one of three modes:
+ *   - SINGLE for a single character (the default "\n", or something like "\0"),
+ *     where a newline separator also drops a "\r" in front of it
+ *   - PARAGRAPH for "", where records are seperated by one or more blank lines
+ *     and newlines at the start and end of the input are ignored
+ *   - REGEX for anything longer, which is matched as a regular expression
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class RecordScanner {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    enum ScanMode {
+        SINGLE, PARAGRAPH, REGEX
+    }
+
+    private Reader reader;
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int start = 0;      // where the next record starts in the buffer
+    private int end = 0;        // how much of the buffer holds characters that were read
+    private boolean eof = false;
+    private String source;
+    private ScanMode mode;
+    private char separator;
+    private Pattern pattern;
+
+    public RecordScanner(Reader inputReader) {
+        this.reader = inputReader;
+        Compile("\n");
+    }
+
+    /*
+     * This method is used to compile the record separator,
+     * it does nothing if the separator has not changed.
+     */
+    void Compile(String rs) {
+        if (rs.equals(source)) { return; }
+        source = rs;
+        String separators = Separators(rs);
+        pattern = null;
+        if (separators.isEmpty()) {
+            mode = ScanMode.PARAGRAPH;
+        } else if (separators.length() == 1) {
+            mode = ScanMode.SINGLE;
+            separator = separators.charAt(0);
+        } else {
+            mode = ScanMode.REGEX;
+            pattern = Pattern.compile(separators);
+        }
+    }
+
+    // turns the escapes that can be written in RS into the characters they stand for
+    static String Separators(String rs) {
+        return rs.replace("\\n", "\n").replace("\\t", "\t").replace("\\r", "\r").replace("\\0", "\0");
+    }
+
+    ScanMode getMode() {
+        return mode;
+    }
+
+    /*
+     * This method is used to return the next record from the
+     * input, or null once the input is exhausted.
+     *
+     * @return String
+     */
+    String ReadRecord() throws IOException {
+        if (mode == ScanMode.SINGLE) {
+            return ReadSingle();
+        } else if (mode == ScanMode.PARAGRAPH) {
+            return ReadParagraph();
+        } else {
+            return ReadRegex();
+        }
+    }
+
+    private String ReadSingle() throws IOException {
+        int scan = start;
+        while (true) {
+            while (scan < end && buffer[scan] != separator) { scan++; }
+            if (scan < end) { // found the separator
+                int recordEnd = scan;
+                if (separator == '\n' && recordEnd > start && buffer[recordEnd - 1] == '\r') { recordEnd--; }
+                return TakeRecord(recordEnd, scan + 1);
+            }
+            scan -= start;
+            if (!Fill()) { return TakeRest(); }
+            scan += start;  // the buffer may have moved so the scan position is kept relative to the record
+        }
+    }
+
+    private String ReadParagraph() throws IOException {
+        while (true) { // skips the blank lines in front of the record
+            while (start < end && buffer[start] == '\n') { start++; }
+            if (start < end || !Fill()) { break; }
+        }
+        int scan = start;
+        while (true) {
+            while (scan < end && buffer[scan] != '\n') { scan++; }
+            if (scan + 1 < end) { // there is a character after the newline to check
+                if (buffer[scan + 1] == '\n') { // a blank line so the record ends here
+                    int next = scan + 2;
+                    while (true) { // swallows the rest of the blank lines
+                        while (next < end && buffer[next] == '\n') { next++; }
+                        if (next < end || eof) { break; }
+                        int recordOffset = scan - start;
+                        int nextOffset = next - start;
+                        boolean filled = Fill();
+                        scan = start + recordOffset;    // Fill moves the record to the front even when there is nothing left to read
+                        next = start + nextOffset;
+                        if (!filled) { break; }
+                    }
+                    return TakeRecord(scan, next);
+                }
+                scan++;
+                continue;
+            }
+            scan -= start;
+            if (!Fill()) {
+                String rest = TakeRest();
+                if (rest != null && rest.endsWith("\n")) { rest = rest.substring(0, rest.length() - 1); }
+                return rest;
+            }
+            scan += start;
+        }
+    }
+
+    private String ReadRegex() throws IOException {
+        Matcher matcher = pattern.matcher("");
+        int from = 0;   // where to start looking, relative to the start of the record
+        while (true) {
+            matcher.reset(CharBuffer.wrap(buffer, start, end - start));
+            boolean found = false;
+            int searchFrom = from;
+            while (searchFrom <= end - start && matcher.find(searchFrom)) {
+                if (matcher.end() > matcher.start()) { // an empty match does not end a record
+                    found = true;
+                    break;
+                }
+                searchFrom = matcher.start() + 1;
+            }
+            if (found && (!matcher.hitEnd() || eof)) { // the separator can not grow any more
+                return TakeRecord(start + matcher.start(), start + matcher.end());
+            }
+            if (found) {
+                from = matcher.start(); // the separator might be longer once more is read
+            } else {
+                from = Math.max(0, end - start - BUFFER_SIZE); // nothing matched so only the end of the buffer needs another look
+            }
+            if (!Fill()) {
+                if (found) { return TakeRecord(start + matcher.start(), start + matcher.end()); }
+                return TakeRest();
+            }
+        }
+    }
+
+    // cuts the record off the front of the buffer
+    private String TakeRecord(int recordEnd, int nextStart) {
+        String record = new String(buffer, start, recordEnd - start);
+        start = nextStart;
+        return record;
+    }
+
+    // returns whatever is left at the end of the input, or null if nothing is
+    private String TakeRest() {
+        if (start >= end) { return null; }
+        return TakeRecord(end, end);
+    }
+
+    /*
+     * This method is used to read more characters into the buffer, moving the
+     * current record to the front first and growing the buffer if the record
+     * already fills it. It returns false at the end of the input.
+     *
+     * @return boolean
+     */
+    private boolean Fill() throws IOException {
+        if (eof) { return false; }
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) { buffer = Arrays.copyOf(buffer, buffer.length * 2); }
+        int read = reader.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    void Close() throws IOException {
+        reader.close();
+    }
+
+    @Override
+    public String toString() {
+        return "RecordScanner: " + mode;
+    }
+}
@@ -1,39 +1,40 @@
 /*
- * ReturnType Class which contains return enums: Normal, Break, Continue, and Return.
- * This class stores a return enum as well as a string if one is provided.
+ * ReturnType Class which contains return enums: Normal, Break, Continue, Return, Next and Exit.
+ * Every statement returns one of these, and there is exactly one shared ReturnType
+ * for each enum, so running a statement never makes a new one and they can be
+ * compared by identity. The value of a return is not kept here, it is handed
+ * back through Interpreter.returnValue.
  */
 public class ReturnType {
 
     enum ReturnEnums {
-        Normal, Break, Continue, Return
+        Normal, Break, Continue, Return, Next, Exit
     }
 
-    ReturnEnums returnEnum;
-    String str;
+    static final ReturnType NORMAL = new ReturnType(ReturnEnums.Normal);
+    static final ReturnType BREAK = new ReturnType(ReturnEnums.Break);
+    static final ReturnType CONTINUE = new ReturnType(ReturnEnums.Continue);
+    static final ReturnType RETURN = new ReturnType(ReturnEnums.Return);
+    static final ReturnType NEXT = new ReturnType(ReturnEnums.Next);
+    static final ReturnType EXIT = new ReturnType(ReturnEnums.Exit);
 
-    public ReturnType(ReturnEnums returnEnum) {
-        this.returnEnum = returnEnum;
-    }
+    final ReturnEnums returnEnum;
 
-    public ReturnType(ReturnEnums returnEnum, String inputStr) {
+    private ReturnType(ReturnEnums returnEnum) {
         this.returnEnum = returnEnum;
-        this.str = inputStr;
     }
 
     ReturnEnums getReturnEnum() {
         return returnEnum;
     }
 
-    String getStr() {
-        return str;
+    // a return, next or exit ends every loop it is in and is passed up to the function or rule running it
+    boolean EndsLoops() {
+        return returnEnum == ReturnEnums.Return || returnEnum == ReturnEnums.Next || returnEnum == ReturnEnums.Exit;
     }
 
     @Override
     public String toString() {
-        if (str != null) {
-            return "ReturnType " + returnEnum + " " + str;
-        } else {
-            return "ReturnType " + returnEnum;
-        }
+        return "ReturnType " + returnEnum;
     }
 }
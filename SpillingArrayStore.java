@@ -0,0 +1,503 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+ * The SpillingArrayStore class which implements an ArrayStore that only keeps
+ * about memoryBudget bytes of elements in memory. The keys are cut into
+ * partitions by their hash, and each partition has a HashMap of the elements in
+ * memory and a list of run files on disk, oldest first, each sorted by key.
+ * Once the elements in memory go over the budget, the partitions used least
+ * recently are spilled (until a quarter of the budget is free again): the
+ * HashMap is sorted into a new run file and emptied. When a run is at least
+ * half as big as the one before it the two are merged, so a partition only
+ * ever has a few runs and every element is only rewritten a few times.
+ *
+ * A lookup checks the HashMap and then the runs from newest to oldest. Each
+ * run keeps a bloom filter and a sparse index (every INDEX_EVERY'th key and
+ * where it starts) in memory, so a key that is not in a run is almost never
+ * read from disk and one that is only costs reading one small block. A removed
+ * key is marked REMOVED, in the HashMap and then in the runs, until it is
+ * merged into the oldest run. for (k in arr) goes through the partitions one
+ * at a time, so only the keys of one partition are held in memory at once.
+ * The tag a run writes before a string value says whether it was a plain
+ * string, a strnum or unset, so it compares the same once it is read back.
+ *
+ * Parallel workers can look keys up in the same store at once, so a run is read
+ * with positional reads that do not move a shared file pointer, and the clock
+ * that orders the partitions by use is atomic. Putting and removing keys is
+ * still only done by one thread at a time.
+ *
+ * The run files go in one temporary directory for the whole program. A run file
+ * is deleted once it is merged into a new run or the store is closed, and
+ * whatever is left in the directory is deleted when the program exits.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class SpillingArrayStore implements ArrayStore {
+    private static final int PARTITIONS = 16;
+    private static final int MAX_RUNS = 8;          // a partition with more runs than this has them all merged into one
+    private static final int INDEX_EVERY = 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BLOOM_BITS = 10;       // bits of bloom filter for each key, which gives about 1% false positives
+    private static final int ENTRY_OVERHEAD = 96;   // about what a HashMap entry, its key String and a value cost besides their chars
+    private static final byte INTEGER = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte STRING = 2;       // a string that is never compared as a number
+    private static final byte REMOVED_TAG = 3;
+    private static final byte STRNUM = 4;       // a string that looks like a number, like a field can be
+    private static final byte UNSET = 5;        // the value of anything never set, written without a string
+    private static final InterpreterDataType REMOVED = new InterpreterDataType();
+
+    private final long memoryBudget;
+    private final Partition[] partitions = new Partition[PARTITIONS];
+    private long memoryUsed = 0;
+    private int size = 0;
+    private final AtomicLong clock = new AtomicLong();  // counts the uses of partitions so the ones used least recently can be found
+    private static Path directory;  // made the first time any store spills
+
+    // the elements whose keys hash to one partition
+    private static class Partition {
+        HashMap<String, InterpreterDataType> memory = new HashMap<>();
+        long memoryBytes = 0;
+        volatile long lastUsed = 0;
+        ArrayList<Run> runs = new ArrayList<>();    // oldest first
+    }
+
+    // a sorted run file and what is kept in memory to look things up in it
+    private static class Run {
+        Path path;
+        FileChannel file;
+        int count;
+        String[] indexKeys;     // every INDEX_EVERY'th key of the run
+        long[] indexOffsets;    // where each of those keys starts, with the length of the file at the end
+        long[] bloom;
+
+        boolean MightContain(String key) {
+            long bits = bloom.length * 64L;
+            int first = key.hashCode();
+            int second = BloomHash(first);
+            for (int i = 0; i < 3; i++) {
+                long bit = Math.floorMod(first + (long) i * second, bits);
+                if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) { return false; }
+            }
+            return true;
+        }
+    }
+
+    // writes the entries of a new run, which have to be added in key order
+    private class RunWriter {
+        private Run run = new Run();
+        private DataOutputStream output;
+        private long offset = 0;    // kept as a long since DataOutputStream stops counting at 2 GB
+        private List<String> indexKeys = new ArrayList<>();
+        private List<Long> indexOffsets = new ArrayList<>();
+
+        RunWriter(int expectedCount) throws IOException {
+            run.path = Files.createTempFile(Directory(), "run", ".bin");
+            run.bloom = new long[Math.max(1, (int) Math.min(Integer.MAX_VALUE, (long) expectedCount * BLOOM_BITS / 64 + 1))];
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run.path), BUFFER_SIZE));
+        }
+
+        void Add(String key, InterpreterDataType value) throws IOException {
+            if (run.count % INDEX_EVERY == 0) {
+                indexKeys.add(key);
+                indexOffsets.add(offset);
+            }
+            offset += WriteEntry(output, key, value);
+            run.count++;
+            long bits = run.bloom.length * 64L;
+            int first = key.hashCode();
+            int second = BloomHash(first);
+            for (int i = 0; i < 3; i++) {
+                long bit = Math.floorMod(first + (long) i * second, bits);
+                run.bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        Run Finish() throws IOException {
+            output.close();
+            indexOffsets.add(offset);
+            run.indexKeys = indexKeys.toArray(new String[0]);
+            run.indexOffsets = indexOffsets.stream().mapToLong(Long::longValue).toArray();
+            run.file = FileChannel.open(run.path, StandardOpenOption.READ);
+            return run;
+        }
+    }
+
+    // makes the directory the runs go in the first time it is needed, and deletes it and whatever is left in it when the program exits
+    private static synchronized Path Directory() throws IOException {
+        if (directory == null) {
+            Path created = Files.createTempDirectory("awk-spill");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try (Stream<Path> files = Files.list(created)) {
+                    files.forEach(file -> file.toFile().delete());
+                } catch (IOException e) {
+                    // the directory is already gone
+                }
+                created.toFile().delete();
+            }));
+            directory = created;
+        }
+        return directory;
+    }
+
+    public SpillingArrayStore(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions[i] = new Partition();
+        }
+    }
+
+    public InterpreterDataType Get(String key) {
+        InterpreterDataType value = Lookup(Use(key), key);
+        return value == REMOVED ? null : value;
+    }
+
+    public void Put(String key, InterpreterDataType value) {
+        Partition partition = Use(key);
+        InterpreterDataType old = partition.memory.put(key, value);
+        if (old == null) {
+            InterpreterDataType spilled = LookupRuns(partition, key);
+            if (spilled == null || spilled == REMOVED) { size++; }
+        } else {
+            if (old == REMOVED) { size++; }
+            Forget(partition, key, old);
+        }
+        long bytes = EntryBytes(key, value);
+        partition.memoryBytes += bytes;
+        memoryUsed += bytes;
+        if (memoryUsed > memoryBudget) {
+            while (memoryUsed > memoryBudget - memoryBudget / 4) {
+                if (!Spill()) { break; }
+            }
+        }
+    }
+
+    public void Remove(String key) {
+        Partition partition = Use(key);
+        InterpreterDataType old = Lookup(partition, key);
+        if (old == null || old == REMOVED) { return; }
+        size--;
+        InterpreterDataType inMemory = partition.memory.remove(key);
+        if (inMemory != null) { Forget(partition, key, inMemory); }
+        if (LookupRuns(partition, key) != null) { // the key has to be hidden from the runs it is still in
+            partition.memory.put(key, REMOVED);
+            partition.memoryBytes += EntryBytes(key, REMOVED);
+            memoryUsed += EntryBytes(key, REMOVED);
+        }
+    }
+
+    public int Size() {
+        return size;
+    }
+
+    // deletes the run files of every partition, the store is not used after this
+    public void Close() {
+        try {
+            for (Partition partition : partitions) {
+                for (Run run : partition.runs) { Delete(run); }
+                partition.runs = new ArrayList<>();
+                partition.memory = new HashMap<>();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting spilled array: SpillingArrayStore<Close>", e);
+        }
+        size = 0;
+        memoryUsed = 0;
+    }
+
+    public Iterable<String> Keys() {
+        return () -> new Iterator<String>() {
+            private int next = 0;
+            private Iterator<String> keys = Collections.emptyIterator();
+
+            public boolean hasNext() {
+                while (!keys.hasNext() && next < PARTITIONS) { keys = PartitionKeys(partitions[next++]).iterator(); }
+                return keys.hasNext();
+            }
+
+            public String next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                return keys.next();
+            }
+        };
+    }
+
+    // returns the keys of a partition, the newest place a key is found in decides if it is still there
+    private List<String> PartitionKeys(Partition partition) {
+        List<String> keys = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        for (Map.Entry<String, InterpreterDataType> entry : partition.memory.entrySet()) {
+            seen.add(entry.getKey());
+            if (entry.getValue() != REMOVED) { keys.add(entry.getKey()); }
+        }
+        for (int i = partition.runs.size() - 1; i >= 0; i--) {
+            Run run = partition.runs.get(i);
+            try (DataInputStream input = OpenRun(run)) {
+                for (int entry = 0; entry < run.count; entry++) {
+                    String key = ReadString(input);
+                    boolean removed = ReadValue(input) == REMOVED;
+                    if (seen.add(key) && !removed) { keys.add(key); }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading spilled array: SpillingArrayStore<Keys>", e);
+            }
+        }
+        return keys;
+    }
+
+    private Partition Use(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        Partition partition = partitions[(hash ^ (hash >>> 16)) & (PARTITIONS - 1)];
+        partition.lastUsed = clock.incrementAndGet();
+        return partition;
+    }
+
+    // returns the newest value of the key, which is REMOVED if it was removed, or null if it was never stored
+    private InterpreterDataType Lookup(Partition partition, String key) {
+        InterpreterDataType value = partition.memory.get(key);
+        if (value != null) { return value; }
+        return LookupRuns(partition, key);
+    }
+
+    private InterpreterDataType LookupRuns(Partition partition, String key) {
+        for (int i = partition.runs.size() - 1; i >= 0; i--) {
+            Run run = partition.runs.get(i);
+            if (!run.MightContain(key)) { continue; }
+            InterpreterDataType value = ReadFromRun(run, key);
+            if (value != null) { return value; }
+        }
+        return null;
+    }
+
+    // takes an element that was replaced or removed out of the memory count
+    private void Forget(Partition partition, String key, InterpreterDataType old) {
+        long bytes = EntryBytes(key, old);
+        partition.memoryBytes -= bytes;
+        memoryUsed -= bytes;
+    }
+
+    private static long EntryBytes(String key, InterpreterDataType value) {
+        return ENTRY_OVERHEAD + 2L * key.length() + (value.IsNumber() ? 0 : 2L * value.getStr().length());
+    }
+
+    /*
+     * This method is used to write the partition used least recently out to
+     * a new run. It returns false if nothing is left in memory to spill.
+     *
+     * @return boolean
+     */
+    private boolean Spill() {
+        Partition coldest = null;
+        for (Partition partition : partitions) {
+            if (!partition.memory.isEmpty() && (coldest == null || partition.lastUsed < coldest.lastUsed)) { coldest = partition; }
+        }
+        if (coldest == null) { return false; }
+        try {
+            List<String> keys = new ArrayList<>(coldest.memory.keySet());
+            Collections.sort(keys);
+            RunWriter writer = new RunWriter(keys.size());
+            for (String key : keys) {
+                InterpreterDataType value = coldest.memory.get(key);
+                if (value != REMOVED || !coldest.runs.isEmpty()) { writer.Add(key, value); } // nothing older needs hiding from a first run
+            }
+            coldest.runs.add(writer.Finish());
+            memoryUsed -= coldest.memoryBytes;
+            coldest.memoryBytes = 0;
+            coldest.memory = new HashMap<>();
+            MergeRuns(coldest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error spilling array to disk: SpillingArrayStore<Spill>", e);
+        }
+        return true;
+    }
+
+    // merges the newest run into the one before it while it is at least half as big, or all of them when there are too many
+    private void MergeRuns(Partition partition) throws IOException {
+        ArrayList<Run> runs = partition.runs;
+        if (runs.size() > MAX_RUNS) {
+            while (runs.size() > 1) { MergeNewest(runs); }
+            return;
+        }
+        while (runs.size() > 1 && runs.get(runs.size() - 1).count * 2L >= runs.get(runs.size() - 2).count) {
+            MergeNewest(runs);
+        }
+    }
+
+    // merges the two newest runs into one, the newer one wins when both have a key
+    private void MergeNewest(ArrayList<Run> runs) throws IOException {
+        Run newer = runs.remove(runs.size() - 1);
+        Run older = runs.remove(runs.size() - 1);
+        boolean oldest = runs.isEmpty();    // removed keys are only dropped once nothing older could still have them
+        RunWriter writer = new RunWriter(newer.count + older.count);
+        try (DataInputStream newerInput = OpenRun(newer); DataInputStream olderInput = OpenRun(older)) {
+            int newerLeft = newer.count;
+            int olderLeft = older.count;
+            String newerKey = newerLeft-- > 0 ? ReadString(newerInput) : null;
+            String olderKey = olderLeft-- > 0 ? ReadString(olderInput) : null;
+            while (newerKey != null || olderKey != null) {
+                int order = newerKey == null ? 1 : olderKey == null ? -1 : newerKey.compareTo(olderKey);
+                String key;
+                InterpreterDataType value;
+                if (order <= 0) {
+                    key = newerKey;
+                    value = ReadValue(newerInput);
+                    newerKey = newerLeft-- > 0 ? ReadString(newerInput) : null;
+                    if (order == 0) {
+                        ReadValue(olderInput);
+                        olderKey = olderLeft-- > 0 ? ReadString(olderInput) : null;
+                    }
+                } else {
+                    key = olderKey;
+                    value = ReadValue(olderInput);
+                    olderKey = olderLeft-- > 0 ? ReadString(olderInput) : null;
+                }
+                if (value != REMOVED || !oldest) { writer.Add(key, value); }
+            }
+        }
+        runs.add(writer.Finish());
+        Delete(newer);
+        Delete(older);
+    }
+
+    private static void Delete(Run run) throws IOException {
+        run.file.close();
+        Files.deleteIfExists(run.path);
+    }
+
+    private static DataInputStream OpenRun(Run run) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path), BUFFER_SIZE));
+    }
+
+    // looks the key up in a run by reading the one block of it the key could be in
+    private static InterpreterDataType ReadFromRun(Run run, String key) {
+        int low = 0;
+        int high = run.indexKeys.length - 1;
+        int block = -1;
+        while (low <= high) { // finds the last block that starts with a key no bigger than the one looked for
+            int middle = (low + high) >>> 1;
+            if (run.indexKeys[middle].compareTo(key) <= 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) { return null; }
+        long start = run.indexOffsets[block];
+        byte[] bytes = new byte[(int) (run.indexOffsets[block + 1] - start)];
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) { // a positional read leaves the channel alone, so other threads can read the run at the same time
+                if (run.file.read(buffer, start + buffer.position()) < 0) { throw new IOException("Run ended early"); }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) { // compares the key bytes where they are and only decodes the value that matches
+                int keyLength = buffer.getInt();
+                int keyStart = buffer.position();
+                buffer.position(keyStart + keyLength);
+                if (Arrays.equals(bytes, keyStart, keyStart + keyLength, wanted, 0, wanted.length)) {
+                    return ReadValue(new DataInputStream(new ByteArrayInputStream(bytes, buffer.position(), buffer.remaining())));
+                }
+                byte tag = buffer.get();
+                if (tag == STRING || tag == STRNUM) {
+                    int valueLength = buffer.getInt();
+                    buffer.position(buffer.position() + valueLength);
+                } else if (tag == INTEGER || tag == DOUBLE) {
+                    buffer.position(buffer.position() + 8);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading spilled array: SpillingArrayStore<Get>", e);
+        }
+    }
+
+    // writes a key and its value and returns how many bytes that took
+    private static long WriteEntry(DataOutputStream output, String key, InterpreterDataType value) throws IOException {
+        long bytes = WriteString(output, key) + 1;
+        if (value == REMOVED) {
+            output.writeByte(REMOVED_TAG);
+            return bytes;
+        } else if (value.IsNumber() && value.IsInteger()) {
+            output.writeByte(INTEGER);
+            output.writeLong(value.getInteger());
+            return bytes + 8;
+        } else if (value.IsNumber()) {
+            output.writeByte(DOUBLE);
+            output.writeDouble(value.getNum());
+            return bytes + 8;
+        } else if (!value.IsNumeric()) {
+            output.writeByte(STRING);
+        } else if (value.getStr().isEmpty()) {  // only an unset value is both "" and a number
+            output.writeByte(UNSET);
+            return bytes;
+        } else {
+            output.writeByte(STRNUM);
+        }
+        return bytes + WriteString(output, value.getStr());
+    }
+
+    private static InterpreterDataType ReadValue(DataInputStream input) throws IOException {
+        byte tag = input.readByte();
+        if (tag == INTEGER) {
+            return InterpreterDataType.Of(input.readLong());
+        } else if (tag == DOUBLE) {
+            return new InterpreterDataType(input.readDouble());
+        } else if (tag == REMOVED_TAG) {
+            return REMOVED;
+        } else if (tag == UNSET) {
+            return InterpreterDataType.EMPTY;
+        }
+        String str = ReadString(input);
+        return tag == STRING ? InterpreterDataType.OfString(str) : new InterpreterDataType(str);
+    }
+
+    // strings are written as their length in bytes and then their UTF-8 bytes
+    private static long WriteString(DataOutputStream output, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static String ReadString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // the second hash of the bloom filter, it has to be odd so every bit can be reached
+    private static int BloomHash(int hash) {
+        hash *= 0x85EBCA6B;
+        return (hash ^ (hash >>> 13)) | 1;
+    }
+
+    @Override
+    public String toString() {
+        return "SpillingArrayStore: " + size + " keys, " + memoryUsed + " of " + memoryBudget + " bytes in memory";
+    }
+}
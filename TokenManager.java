@@ -9,6 +9,7 @@ import java.util.Optional;
  */
 public class TokenManager {
      private LinkedList<Token> tokens;
+     private Token.TokenType lastRemoved;   // the type of the token removed last, null before the first one
 
     public TokenManager(LinkedList<Token> inputTokens) { this.tokens = inputTokens; }
 
@@ -24,7 +25,14 @@ public class TokenManager {
     boolean MoreTokens() { return !tokens.isEmpty(); }
 
     Optional<Token> MatchAndRemove(Token.TokenType t) {
-        if (MoreTokens() && tokens.element().getTokenType() == t) { return Optional.ofNullable(tokens.pollFirst()); }
+        if (MoreTokens() && tokens.element().getTokenType() == t) {
+            lastRemoved = t;
+            return Optional.ofNullable(tokens.pollFirst());
+        }
         return Optional.empty();
     }
+
+    Token.TokenType LastRemoved() {
+        return lastRemoved;
+    }
 }
@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+/*
+ * The UserFunction class which is what an interpreter keeps for each function
+ * the program defines: its definition, its body once it has been compiled, and
+ * the frames it runs in. A frame is an array with a slot for each declared
+ * parameter, the VariableResolver numbered them, so the parameters and the
+ * extra locals after them are found without looking a name up. There is one
+ * frame for each level of recursion, made the first time a call gets that deep
+ * and reused by every call after it, so calling a function makes nothing new.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class UserFunction {
+    final FunctionDefinitionNode definition;
+    final int frameSize;
+    CompiledStatement body;     // the statements compiled, null until the function is first called
+    private InterpreterDataType[][] frames = new InterpreterDataType[8][];
+    private int depth = 0;      // how many calls of this function are running
+
+    UserFunction(FunctionDefinitionNode definition) {
+        this.definition = definition;
+        this.frameSize = definition.getParameters() == null ? 0 : definition.getParameters().size();
+    }
+
+    // true if the parameter is used as an array, so its argument is passed by reference
+    boolean IsArrayParameter(int index) {
+        return definition.arrayParameters != null && definition.arrayParameters[index];
+    }
+
+    // returns an empty frame for a new call, the caller fills in the arguments
+    InterpreterDataType[] PushFrame() {
+        if (depth == frames.length) { frames = Arrays.copyOf(frames, depth * 2); }
+        InterpreterDataType[] frame = frames[depth];
+        if (frame == null) {
+            frame = new InterpreterDataType[frameSize];
+            frames[depth] = frame;
+        }
+        depth++;
+        return frame;
+    }
+
+    // ends the newest call, its frame is emptied so the next call at this depth starts with unset locals
+    void PopFrame() {
+        depth--;
+        Arrays.fill(frames[depth], null);
+    }
+}
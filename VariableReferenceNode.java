@@ -6,8 +6,12 @@ import java.util.Optional;
  * @author Benjamin Babu (bbabu@albany.edu)
  */
 public class VariableReferenceNode extends Node {
+    static final int UNRESOLVED = -1;
+
     String name;
     Optional<Node> expression;
+    int slot = UNRESOLVED;  // set by the VariableResolver, the slot of a global or the position of a parameter
+    boolean local;          // true when slot is the position of a function parameter
 
     public VariableReferenceNode(String inputName) {
         this.name = inputName;
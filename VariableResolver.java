@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+ * The VariableResolver class which binds every variable of a program to where
+ * it lives after it is parsed and before it is run, so the interpreter can find
+ * a variable by number instead of looking its name up in a HashMap every time.
+ *   - a parameter of a function is bound to its position in the parameter list
+ *   - the special variables the interpreter reads by name itself (FS, NR, NF, ...)
+ *     are left unbound and stay in the globalVariables HashMap
+ *   - every other variable is a global and is bound to a slot of the interpreter's
+ *     array of globals, the same name always getting the same slot
+ * The names of the global slots are kept in the ProgramNode, so a global can
+ * still be found by its name when the interpreter needs to (parallel aggregates).
+ * It also works out which parameters of each function are arrays, since those
+ * are passed by reference while every other argument is passed by value. A
+ * parameter is an array when the function indexes it, uses it with in, deletes
+ * it, gives it to split, or passes it on to a parameter of another function
+ * that is an array.
+ *
+ * @author Benjamin Babu (bbabu@albany.edu)
+ */
+public class VariableResolver {
+    // never given a slot, so every assignment to OFMT or CONVFMT goes through Interpreter.AssignVariable or PutGlobal
+    static final Set<String> SPECIAL_VARIABLES = Set.of("FS", "OFS", "ORS", "RS", "OFMT", "CONVFMT", "FIELDWIDTHS", "FILENAME", "NF", "NR", "FNR");
+
+    private final List<String> globalNames;
+    private final HashMap<String, Integer> globalSlots = new HashMap<>();
+    private HashMap<String, Integer> parameters = new HashMap<>();     // the parameters of the function being resolved
+    private boolean[] arrayParameters = new boolean[0];                 // which of those are used as arrays
+    private final List<PassedParameter> passedParameters = new ArrayList<>();
+    private FunctionDefinitionNode function;                            // the function being resolved, null in the rules
+
+    // a parameter of one function passed on as it is to a parameter of another, so it is an array if that one is
+    private static class PassedParameter {
+        final FunctionDefinitionNode caller;
+        final int parameter;
+        final String callee;
+        final int argument;
+
+        PassedParameter(FunctionDefinitionNode caller, int parameter, String callee, int argument) {
+            this.caller = caller;
+            this.parameter = parameter;
+            this.callee = callee;
+            this.argument = argument;
+        }
+    }
+
+    private VariableResolver(List<String> globalNames) {
+        this.globalNames = globalNames;
+        for (int i = 0; i < globalNames.size(); i++) {
+            globalSlots.put(globalNames.get(i), i);
+        }
+    }
+
+    // binds the variables in every rule and function of the program, changing the nodes in place
+    static void Resolve(Parser.ProgramNode programNode) {
+        VariableResolver resolver = new VariableResolver(programNode.getGlobalNames());
+        resolver.ResolveBlocks(programNode.getBeginBlockNodes());
+        resolver.ResolveBlocks(programNode.getOtherBlockNodes());
+        resolver.ResolveBlocks(programNode.getEndBlockNodes());
+        HashMap<String, FunctionDefinitionNode> functions = new HashMap<>();
+        for (FunctionDefinitionNode function : programNode.getFunctionNodes()) {
+            if (function instanceof BuiltInFunctionDefinitionNode) { continue; }
+            functions.put(function.getFunctionName(), function);
+            resolver.function = function;
+            resolver.parameters = new HashMap<>();
+            List<String> names = function.getParameters();
+            for (int i = 0; names != null && i < names.size(); i++) {
+                resolver.parameters.put(names.get(i), i);
+            }
+            resolver.arrayParameters = new boolean[names == null ? 0 : names.size()];
+            function.arrayParameters = resolver.arrayParameters;
+            resolver.ResolveStatements(function.getStatementNodes());
+        }
+        resolver.PassArrays(functions);
+    }
+
+    // marks the parameters passed on to array parameters as arrays too, until nothing changes
+    private void PassArrays(HashMap<String, FunctionDefinitionNode> functions) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (PassedParameter passed : passedParameters) {
+                FunctionDefinitionNode callee = functions.get(passed.callee);
+                if (callee == null || passed.argument >= callee.arrayParameters.length) { continue; }
+                if (callee.arrayParameters[passed.argument] && !passed.caller.arrayParameters[passed.parameter]) {
+                    passed.caller.arrayParameters[passed.parameter] = true;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private void ResolveBlocks(List<BlockNode> blocks) {
+        for (BlockNode block : blocks) {
+            if (block.getCondition() != null && block.getCondition().isPresent()) { ResolveExpression(block.getCondition().get()); }
+            ResolveStatements(block.getStatement());
+        }
+    }
+
+    private void ResolveStatements(LinkedList<StatementNode> statements) {
+        for (StatementNode statement : statements) {
+            ResolveStatement(statement);
+        }
+    }
+
+    private void ResolveStatement(StatementNode stmt) {
+        if (stmt instanceof IfNode ifNode) {
+            for (IfNode curr = ifNode; curr != null; curr = (IfNode) curr.next) { // the else ifs hang off the first if
+                ResolveExpression(curr.condition);
+                ResolveStatements(curr.blockNode.getStatement());
+            }
+        } else if (stmt instanceof WhileNode whileNode) {
+            ResolveExpression(whileNode.condition);
+            ResolveStatements(whileNode.blockNode.getStatement());
+        } else if (stmt instanceof DoWhileNode doWhileNode) {
+            ResolveExpression(doWhileNode.condition);
+            ResolveStatements(doWhileNode.blockNode.getStatement());
+        } else if (stmt instanceof ForNode forNode) {
+            ResolveExpression(forNode.condition1);
+            ResolveExpression(forNode.condition2);
+            ResolveExpression(forNode.condition3);
+            ResolveStatements(forNode.blockNode.getStatement());
+        } else if (stmt instanceof ForEachNode forEachNode) {
+            ResolveExpression(forEachNode.condition1);
+            ResolveStatements(forEachNode.blockNode.getStatement());
+        } else if (stmt instanceof ReturnNode returnNode) {
+            ResolveExpression(returnNode.statement);
+        } else if (stmt instanceof DeleteNode deleteNode) {
+            ResolveExpression(deleteNode.condition);
+            MarkArray(deleteNode.condition);
+        } else {
+            ResolveExpression(stmt); // assignments and function calls
+        }
+    }
+
+    private void ResolveExpression(Node node) {
+        if (node instanceof VariableReferenceNode vNode) {
+            Bind(vNode);
+            ResolveOptional(vNode.expression);
+            if (vNode.expression != null && vNode.expression.isPresent()) { MarkArray(vNode); }
+        } else if (node instanceof OperationNode opNode) {
+            ResolveExpression(opNode.left);
+            ResolveOptional(opNode.right);
+            if (opNode.thisEnum == OperationNode.OperationList.IN && opNode.right.isPresent()) { MarkArray(opNode.right.get()); }
+        } else if (node instanceof AssignmentNode aNode) {
+            ResolveExpression(aNode.target);
+            ResolveExpression(aNode.expression);
+        } else if (node instanceof TernaryNode tNode) {
+            ResolveExpression(tNode.checkCase);
+            ResolveOptional(tNode.trueCase);
+            ResolveOptional(tNode.falseCase);
+        } else if (node instanceof MathOpNode mathNode) {
+            ResolveExpression(mathNode.left);
+            ResolveOptional(mathNode.right);
+        } else if (node instanceof FunctionCallNode fNode) {
+            if (fNode.parameters != null) { fNode.parameters.forEach(this::ResolveExpression); }
+            ResolveExpression(fNode.redirectTarget);
+            if (fNode.parameters != null) { PassParameters(fNode); }
+        }
+    }
+
+    // the arrays split fills are arrays, and a parameter passed on as it is may be one
+    private void PassParameters(FunctionCallNode fNode) {
+        String functionName = Interpreter.FunctionName(fNode);
+        for (int j = 0; j < fNode.parameters.size(); j++) {
+            Node parameter = fNode.parameters.get(j);
+            if ("split".equals(functionName) && (j == 1 || j == 3)) {
+                MarkArray(parameter);
+            } else if (function != null && parameter instanceof VariableReferenceNode vNode && vNode.local
+                    && (vNode.expression == null || vNode.expression.isEmpty())) {
+                passedParameters.add(new PassedParameter(function, vNode.slot, functionName, j));
+            }
+        }
+    }
+
+    // records that a parameter of the function being resolved is used as an array
+    private void MarkArray(Node node) {
+        if (node instanceof VariableReferenceNode vNode && vNode.local) {
+            arrayParameters[vNode.slot] = true;
+        }
+    }
+
+    private void ResolveOptional(Optional<Node> node) {
+        if (node != null && node.isPresent()) { ResolveExpression(node.get()); }
+    }
+
+    private void Bind(VariableReferenceNode vNode) {
+        Integer parameter = parameters.get(vNode.getName());
+        if (parameter != null) {
+            vNode.slot = parameter;
+            vNode.local = true;
+        } else if (!SPECIAL_VARIABLES.contains(vNode.getName())) {
+            vNode.slot = globalSlots.computeIfAbsent(vNode.getName(), name -> {
+                globalNames.add(name);
+                return globalNames.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,14 @@
+BEGIN { n = split("a b c", parts)
+  for (k in parts) { print k " " (k < 10) " " (k == 1) " " parts[k] }
+  for (i = 0; i < 30000; i++) { big["k" i] = i * 3 }
+  total = 0
+  for (k in big) { total = total + big[k] }
+  print total " " big["k29999"] " " ("k5" in big)
+  delete big["k5"]
+  print ("k5" in big)
+  delete big
+  count = 0
+  for (k in big) { count = count + 1 }
+  print count }
+{ seen[$1] = seen[$1] + $2 }
+END { print seen["a"] " " seen["b"] " " seen["c"] }
@@ -0,0 +1,10 @@
+BEGIN { f = "/tmp/compare_modes_close.txt"
+  print "a" > f
+  close(f)
+  print "b" > f
+  print "c" >> f
+  close(f)
+  cmd = "cat - " f "; rm -f " f
+  print "the file holds:" | cmd
+  close(cmd)
+  print "done" }
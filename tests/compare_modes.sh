@@ -0,0 +1,34 @@
+#!/bin/sh
+# Builds the interpreter and runs every program in this directory with each
+# execution mode. Every mode has to print what the default mode prints, and the
+# default mode has to print what the program's .expected file holds. A program
+# reads the .txt file with its name, or nothing if there is none.
+#
+# Run from anywhere: sh tests/compare_modes.sh
+
+tests=$(cd "$(dirname "$0")" && pwd)
+classes=$(mktemp -d)
+trap 'rm -rf "$classes"' EXIT
+javac -nowarn -d "$classes" "$tests"/../*.java || exit 1
+
+failed=0
+for program in "$tests"/*.awk; do
+  name=$(basename "$program" .awk)
+  input="$tests/$name.txt"
+  [ -f "$input" ] || input=/dev/null
+  expected=$(cat "$tests/$name.expected")
+  default=$(java -cp "$classes" Main "$program" "$input" 2>&1)
+  if [ "$default" != "$expected" ]; then
+    echo "FAIL $name: the default mode does not print $name.expected"
+    failed=1
+  fi
+  for mode in -mmap -parallel -jit -offheap "-spill 1"; do
+    output=$(java -cp "$classes" Main $mode "$program" "$input" 2>&1)
+    if [ "$output" != "$default" ]; then
+      echo "FAIL $name: $mode prints something else than the default mode"
+      failed=1
+    fi
+  done
+done
+[ $failed -eq 0 ] && echo "every mode prints the same"
+exit $failed
@@ -0,0 +1,11 @@
+BEGIN { x = 3.7; print x
+  OFMT = "%x"; print x
+  OFMT = "%o"; print 9.5
+  OFMT = "%u"; print 12.25
+  OFMT = "%c"; print 65.5
+  OFMT = "%.2f"; print 3.14159
+  OFMT = "%d"; print 7.9
+  OFMT = "%i"; print 8.9
+  OFMT = "%e"; print 1234.5
+  OFMT = "%.6g"; CONVFMT = "%.3f"; y = 2.71828 ""; print y
+  CONVFMT = "%.6g"; print 0.1 + 0.2 }
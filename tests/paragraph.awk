@@ -0,0 +1,2 @@
+BEGIN { RS = "" }
+{ print NR ": " $0 " NF=" NF }
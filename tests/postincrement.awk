@@ -0,0 +1,9 @@
+function f(p,   l) { l = 5; m = l++; print m " " l; m = p--; print m " " p }
+BEGIN { a = 5; b = a++; print b " " a; b = a--; print b " " a
+  s = "abc"; t = s++; print t " " s
+  arr["k"] = 2.5; u = arr["k"]++; print u " " arr["k"]
+  v = w++; print v " " w
+  i = 1; z[1] = 10; y = z[i++]++; print y " " z[1] " " i
+  c = 7; d = ++c; print d " " c
+  f(7) }
+{ q = $2++; print q " " $2 " " $0 }
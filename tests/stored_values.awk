@@ -0,0 +1,5 @@
+{ field["k" NR] = $1 }
+END { unset["x"] = u; string["z"] = "3.0"; number["n"] = 3.0
+  for (i = 0; i < 40000; i++) { unset["f" i] = i; string["f" i] = i; number["f" i] = i; field["f" i] = i }
+  print (unset["x"] == 0) " " (unset["x"] == "") " " (string["z"] == 3) " " (number["n"] == "3")
+  print (field["k1"] == 10) " " (field["k2"] == 3) " " (field["k2"] < 10) " " (field["k3"] == 0) }
@@ -0,0 +1,5 @@
+BEGIN { print (x == 0) " " (x == "") " " (x < 1) " " (x == "0") " " (x "" == 0)
+  print (a[1] == 0) " " (a[1] == "") " " length(x)
+  y = " 12 "
+  print (y == 12) " " (y + 0 == 12) }
+{ print ($7 == 0) " " ($7 == "") " " ($2 == 0) " " ($1 < 10) " " (unset + $1) }